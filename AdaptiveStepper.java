@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+// Event-driven replacement for checking every pair on every step. Each
+// nearby pair gets a wake-up step: the earliest step at which it could be
+// within contact distance, given its current separation and a bound on how
+// fast the two can close. Pairs sit in a priority queue by wake-up step and
+// the catalog is propagated straight from one wake-up to the next, so quiet
+// stretches cost one propagation call instead of a sweep per step.
+// Pairs farther apart than the look-ahead window are not queued at all; the
+// window is regridded when it runs out, and it grows while the catalog is
+// quiet and shrinks when too many pairs fall inside it.
+//
+// Reports the same collisions, at the same steps, as the per-step sweep.
+public class AdaptiveStepper {
+
+    // Orbital speed bounds come from vis-viva; the margin covers J2 and integrator error
+    private static final double SPEED_MARGIN = 1.01;
+    private static final int MIN_WINDOW = 1, MAX_WINDOW = 1 << 16;
+
+    private final SatelliteStore store;
+    private final Propagator propagator;
+    private final double mu;
+    private final int steps;
+
+    private final SpatialHash grid = new SpatialHash(1);
+    private final PairList candidates = new PairList();
+    private final EventQueue queue = new EventQueue();
+    private double[] speedBound = new double[0];
+
+    private int step;        // step the store currently holds
+    private int checkedStep; // last step handed out by next()
+    private int nextRegrid = 1;
+    private int window = 8;
+    private boolean contact; // last list handed out was not empty
+    private long pairsChecked;
+
+    // mu is the gravitational parameter the propagator uses, or 0 for straight-line motion
+    public AdaptiveStepper(SatelliteStore store, Propagator propagator, double mu, int steps) {
+        this.store = store;
+        this.propagator = propagator;
+        this.mu = propagator instanceof LinearPropagator ? 0 : mu;
+        this.steps = steps;
+        this.step = 1;
+    }
+
+    // Advances to the next step where some pair has to be checked and fills
+    // out with the pairs that touch during it, sorted. Returns false once
+    // the horizon is done, with the store propagated past its last step.
+    public boolean next(PairList out) {
+        out.clear();
+        while (true) {
+            int target = Math.min(nextRegrid, steps + 1);
+            if (!queue.isEmpty()) target = Math.min(target, queue.peekStep());
+            if (target <= checkedStep) target = checkedStep + 1;
+            moveTo(target);
+            if (step > steps) return false;
+
+            if (step == nextRegrid) regrid();
+            boolean due = false;
+            while (!queue.isEmpty() && queue.peekStep() == step) {
+                due = true;
+                long pair = queue.pop();
+                int i = (int) (pair >>> 32), j = (int) pair;
+                pairsChecked++;
+                if (Metrics.ENABLED) Metrics.PAIRS_TESTED.add(1);
+                if (store.isCollidingWithin(i, j, 1)) {
+                    out.add(i, j);
+                    schedule(i, j, step + 1);
+                } else {
+                    schedule(i, j, step + Math.max(1, safeSteps(i, j)));
+                }
+            }
+            // Steps with nothing due are skipped, except the one right after
+            // contact: callers need it to see the contact end
+            boolean afterContact = contact && step == checkedStep + 1;
+            checkedStep = step;
+            if (due || afterContact) {
+                out.sort();
+                contact = !out.isEmpty();
+                return true;
+            }
+        }
+    }
+
+    // Step of the pairs last returned by next()
+    public int step() { return checkedStep; }
+
+    public long pairsChecked() { return pairsChecked; }
+
+    private void moveTo(int target) {
+        if (target > step) {
+            store.propagate(propagator, target - step);
+            step = target;
+        }
+    }
+
+    // Queues every pair that could touch before the window ends
+    private void regrid() {
+        int n = store.size();
+        if (speedBound.length < n) speedBound = new double[n];
+        double maxSpeed = 0;
+        for (int i = 0; i < n; i++) {
+            speedBound[i] = speedBound(i);
+            maxSpeed = Math.max(maxSpeed, speedBound[i]);
+        }
+        queue.clear();
+
+        double reach = 2 * store.maxRadius() + 2 * maxSpeed * window;
+        grid.setCellSize(Double.isInfinite(reach) ? Double.MAX_VALUE : reach);
+        grid.candidatePairs(store, candidates);
+        nextRegrid = step + window;
+        int queued = 0;
+        for (int k = 0; k < candidates.size(); k++) {
+            int i = candidates.first(k), j = candidates.second(k);
+            double dx = store.x[i] - store.x[j], dy = store.y[i] - store.y[j], dz = store.z[i] - store.z[j];
+            if (dx * dx + dy * dy + dz * dz > reach * reach) continue;
+            if (schedule(i, j, step + safeSteps(i, j))) queued++;
+        }
+
+        // Few pairs inside the window: look further ahead next time; many: less far
+        if (queued < n / 4 + 1) window = Math.min(window * 2, MAX_WINDOW);
+        else if (queued > 4 * n) window = Math.max(window / 2, MIN_WINDOW);
+    }
+
+    // Queues the pair unless its wake-up falls after the next regrid, which requeues it anyway
+    private boolean schedule(int i, int j, int wake) {
+        if (wake >= nextRegrid || wake > steps) return false;
+        queue.push(wake, ((long) i << 32) | j);
+        return true;
+    }
+
+    // Whole steps from now that i and j are certain to stay apart for
+    private int safeSteps(int i, int j) {
+        double dx = store.x[i] - store.x[j], dy = store.y[i] - store.y[j], dz = store.z[i] - store.z[j];
+        double gap = Math.sqrt(dx * dx + dy * dy + dz * dz) - store.radius[i] - store.radius[j];
+        double closing = speedBound[i] + speedBound[j];
+        if (gap <= 0 || Double.isInfinite(closing)) return 0;
+        if (closing == 0) return Integer.MAX_VALUE;
+        // Distance stays above contact for times < gap / closing; a step covers one time unit
+        double safe = Math.ceil(gap / closing) - 1;
+        return safe >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) safe;
+    }
+
+    // Fastest satellite i can move before the next regrid
+    private double speedBound(int i) {
+        double vx = store.vx[i], vy = store.vy[i], vz = store.vz[i];
+        double v2 = vx * vx + vy * vy + vz * vz;
+        if (mu <= 0) return Math.sqrt(v2);
+        // Perigee speed mu (1 + e) / h from the energy and angular momentum
+        double x = store.x[i], y = store.y[i], z = store.z[i];
+        double hx = y * vz - z * vy, hy = z * vx - x * vz, hz = x * vy - y * vx;
+        double h = Math.sqrt(hx * hx + hy * hy + hz * hz);
+        if (h == 0) return Double.POSITIVE_INFINITY;
+        double energy = v2 / 2 - mu / Math.sqrt(x * x + y * y + z * z);
+        double e = Math.sqrt(Math.max(0, 1 + 2 * energy * h * h / (mu * mu)));
+        return SPEED_MARGIN * Math.max(Math.sqrt(v2), mu * (1 + e) / h);
+    }
+
+    // Binary min-heap of (step, pair), ordered by step then pair
+    private static final class EventQueue {
+        private int[] steps = new int[64];
+        private long[] pairs = new long[64];
+        private int size;
+
+        boolean isEmpty() { return size == 0; }
+
+        void clear() { size = 0; }
+
+        int peekStep() { return steps[0]; }
+
+        void push(int step, long pair) {
+            if (size == steps.length) {
+                steps = Arrays.copyOf(steps, size * 2);
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            int k = size++;
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                if (!less(step, pair, steps[parent], pairs[parent])) break;
+                steps[k] = steps[parent];
+                pairs[k] = pairs[parent];
+                k = parent;
+            }
+            steps[k] = step;
+            pairs[k] = pair;
+        }
+
+        long pop() {
+            long top = pairs[0];
+            int step = steps[--size];
+            long pair = pairs[size];
+            int k = 0;
+            while (true) {
+                int child = 2 * k + 1;
+                if (child >= size) break;
+                if (child + 1 < size && less(steps[child + 1], pairs[child + 1], steps[child], pairs[child])) child++;
+                if (!less(steps[child], pairs[child], step, pair)) break;
+                steps[k] = steps[child];
+                pairs[k] = pairs[child];
+                k = child;
+            }
+            steps[k] = step;
+            pairs[k] = pair;
+            return top;
+        }
+
+        private static boolean less(int stepA, long pairA, int stepB, long pairB) {
+            return stepA != stepB ? stepA < stepB : pairA < pairB;
+        }
+    }
+}
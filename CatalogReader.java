@@ -0,0 +1,176 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+// Loads a CSV catalog (id,x,y,z,vx,vy,vz,radius per line) straight into a
+// SatelliteStore. The file is memory-mapped in large regions and parsed
+// byte by byte with a hand-rolled number parser; no String is created per
+// field except the id. Blank lines and lines starting with '#' are skipped,
+// and so is the first other line if its x field is not a number (a header);
+// any other malformed line is an error.
+public class CatalogReader {
+
+    private static final int REGION_SIZE = 1 << 28;
+    // 10^0 .. 10^22 are exact doubles, so mantissa / 10^k is correctly rounded
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private final SatelliteStore store;
+    private final boolean is3D;
+    private final double[] fields = new double[7];
+    private MappedByteBuffer buf;
+    private int pos;
+    private long lineNumber;
+    private boolean pastHeader;
+
+    private CatalogReader(SatelliteStore store, boolean is3D) {
+        this.store = store;
+        this.is3D = is3D;
+    }
+
+    // With is3D false, z and vz are read but set to 0, like the interactive prompt
+    public static SatelliteStore read(File file, boolean is3D) throws IOException {
+        // Rough guess of 60 bytes per row saves most of the regrowth
+        SatelliteStore store = new SatelliteStore((int) Math.min(file.length() / 60 + 16, Integer.MAX_VALUE - 8));
+        new CatalogReader(store, is3D).parse(file);
+        return store;
+    }
+
+    private void parse(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = 0;
+            while (offset < size) {
+                long length = Math.min(REGION_SIZE, size - offset);
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                int end = (int) length;
+                if (offset + length < size) {
+                    // Only parse whole lines; the tail is picked up by the next region
+                    while (end > 0 && buf.get(end - 1) != '\n') end--;
+                    if (end == 0) throw new IOException("Line longer than " + REGION_SIZE + " bytes");
+                }
+                pos = 0;
+                while (pos < end) parseLine(end);
+                offset += end;
+            }
+        }
+    }
+
+    private void parseLine(int end) throws IOException {
+        lineNumber++;
+        int lineStart = pos;
+        int lineEnd = lineStart;
+        while (lineEnd < end && buf.get(lineEnd) != '\n') lineEnd++;
+        pos = lineEnd + 1;
+
+        int stop = lineEnd;
+        if (stop > lineStart && buf.get(stop - 1) == '\r') stop--;
+        int p = skipSpaces(lineStart, stop);
+        if (p == stop || buf.get(p) == '#') return;
+        boolean header = !pastHeader;
+        pastHeader = true;
+
+        int idEnd = p;
+        while (idEnd < stop && buf.get(idEnd) != ',') idEnd++;
+        String id = string(p, idEnd, StandardCharsets.UTF_8).trim();
+
+        p = idEnd;
+        for (int f = 0; f < fields.length; f++) {
+            if (p >= stop || buf.get(p) != ',') {
+                throw new IOException("Line " + lineNumber + ": expected 8 comma-separated fields");
+            }
+            int fieldEnd = p + 1;
+            while (fieldEnd < stop && buf.get(fieldEnd) != ',') fieldEnd++;
+            double v = parseDouble(p + 1, fieldEnd);
+            if (Double.isNaN(v)) {
+                if (header && f == 0) return;
+                throw new IOException("Line " + lineNumber + ": bad number in field " + (f + 2));
+            }
+            fields[f] = v;
+            p = fieldEnd;
+        }
+        if (p != stop) throw new IOException("Line " + lineNumber + ": too many fields");
+
+        try {
+            store.add(id, fields[0], fields[1], is3D ? fields[2] : 0,
+                    fields[3], fields[4], is3D ? fields[5] : 0, fields[6]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    // Plain decimals take the fast path; exponents and long mantissas fall
+    // back to Double.parseDouble. Returns NaN if the field is not a number.
+    private double parseDouble(int start, int end) {
+        int p = skipSpaces(start, end);
+        int stop = end;
+        while (stop > p && isSpace(buf.get(stop - 1))) stop--;
+        if (p == stop) return Double.NaN;
+
+        boolean negative = false;
+        byte c = buf.get(p);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean seenDot = false, seenDigit = false, slow = false;
+        for (int i = p; i < stop; i++) {
+            c = buf.get(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    if (seenDot) fractionDigits++;
+                } else {
+                    slow = true;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if ((c == 'e' || c == 'E') && seenDigit) {
+                return slowParse(start, end);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit) return Double.NaN;
+        if (slow || fractionDigits >= POWERS_OF_TEN.length || mantissa >= (1L << 53)) {
+            return slowParse(start, end);
+        }
+        double v = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -v : v;
+    }
+
+    private double slowParse(int start, int end) {
+        try {
+            return Double.parseDouble(string(start, end, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private String string(int start, int end, Charset charset) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(start + i);
+        return new String(bytes, charset);
+    }
+
+    private int skipSpaces(int p, int end) {
+        while (p < end && isSpace(buf.get(p))) p++;
+        return p;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
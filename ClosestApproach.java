@@ -0,0 +1,40 @@
+// Closest approach of two objects moving with constant velocity.
+// Works on relative state so it serves every Satellite flavour in the project.
+public class ClosestApproach {
+    public final double time;         // offset from the start of the interval
+    public final double missDistance;
+
+    private ClosestApproach(double time, double missDistance) {
+        this.time = time;
+        this.missDistance = missDistance;
+    }
+
+    // Relative position (dx,dy,dz) and relative velocity (dvx,dvy,dvz) at the
+    // start of the interval; the search is limited to [0, dt]
+    public static ClosestApproach compute(double dx, double dy, double dz,
+                                          double dvx, double dvy, double dvz, double dt) {
+        double t = time(dx, dy, dz, dvx, dvy, dvz, dt);
+        double cx = dx + dvx * t;
+        double cy = dy + dvy * t;
+        double cz = dz + dvz * t;
+        return new ClosestApproach(t, Math.sqrt(cx * cx + cy * cy + cz * cz));
+    }
+
+    // Allocation-free variant for hot loops: squared miss distance only
+    public static double missDistanceSquared(double dx, double dy, double dz,
+                                             double dvx, double dvy, double dvz, double dt) {
+        double t = time(dx, dy, dz, dvx, dvy, dvz, dt);
+        double cx = dx + dvx * t;
+        double cy = dy + dvy * t;
+        double cz = dz + dvz * t;
+        return cx * cx + cy * cy + cz * cz;
+    }
+
+    private static double time(double dx, double dy, double dz,
+                               double dvx, double dvy, double dvz, double dt) {
+        double vv = dvx * dvx + dvy * dvy + dvz * dvz;
+        if (vv == 0) return 0;
+        double t = -(dx * dvx + dy * dvy + dz * dvz) / vv;
+        return t < 0 ? 0 : (t > dt ? dt : t);
+    }
+}
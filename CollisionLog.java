@@ -0,0 +1,167 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Log sink shared by the simulators. A pair that stays in contact is
+// reported once when it enters contact, not on every tick. The view only
+// gets the most recent lines from a fixed-size ring buffer, and at most a
+// few times per second. Every line is also written to a file or stdout by
+// a background thread, so the UI never waits on I/O.
+public class CollisionLog implements AutoCloseable {
+
+    private static final long REFRESH_NANOS = 250_000_000L;
+    private static final int OUTPUT_QUEUE_CAPACITY = 65_536;
+
+    // Ring buffer of the most recent lines
+    private final String[] recent;
+    private int head, count;
+    private boolean changed;
+    private long lastRefresh;
+
+    // Pairs in contact during the previous tick (sorted) and so far this
+    // tick, packed by index the way PairList does
+    private long[] previous = new long[16];
+    private long[] current = new long[16];
+    private int previousCount, currentCount;
+    private final String marker;
+
+    private final BlockingQueue<String> output = new ArrayBlockingQueue<>(OUTPUT_QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private final AtomicLong droppedOutput = new AtomicLong();
+    private volatile boolean closed;
+
+    public CollisionLog(int capacity, OutputStream out) {
+        this(capacity, out, "⚠ ");
+    }
+
+    // marker is put in front of every collision line; out stays open after close()
+    public CollisionLog(int capacity, OutputStream out, String marker) {
+        this(capacity, out, marker, false);
+    }
+
+    private CollisionLog(int capacity, OutputStream out, String marker, boolean ownsOutput) {
+        this.recent = new String[capacity];
+        this.marker = marker;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.writerThread = new Thread(() -> writeLoop(writer, ownsOutput), "collision-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Writes to the file named by -Dcollision.log, or stdout when unset
+    public static CollisionLog open(int capacity) {
+        return open(capacity, "⚠ ");
+    }
+
+    public static CollisionLog open(int capacity, String marker) {
+        String path = System.getProperty("collision.log");
+        if (path != null) {
+            try {
+                return new CollisionLog(capacity, new FileOutputStream(path, true), marker, true);
+            } catch (IOException e) {
+                System.err.println("Cannot open " + path + ", logging to stdout: " + e.getMessage());
+            }
+        }
+        return new CollisionLog(capacity, System.out, marker);
+    }
+
+    // Any thread
+    public synchronized void post(String line) {
+        recent[(head + count) % recent.length] = line;
+        if (count < recent.length) count++;
+        else head = (head + 1) % recent.length;
+        changed = true;
+        if (!output.offer(line)) droppedOutput.incrementAndGet();
+        if (Metrics.ENABLED) Metrics.LOG_QUEUE_DEPTH.record(output.size());
+    }
+
+    // Reports satellites first and second in contact; only the first tick of
+    // a run of contact is logged. The ids are only used to build that line.
+    public synchronized void collision(int first, int second, String firstId, String secondId) {
+        long pair = ((long) first << 32) | (second & 0xFFFFFFFFL);
+        if (currentCount == current.length) current = Arrays.copyOf(current, currentCount * 2);
+        current[currentCount++] = pair;
+        if (Arrays.binarySearch(previous, 0, previousCount, pair) < 0) {
+            post(marker + "Collision detected between " + firstId + " and " + secondId + "\n");
+        }
+    }
+
+    // Call once per simulation tick after all collision() calls; pairs not
+    // reported this tick have separated and will be logged again next contact
+    public synchronized void endTick() {
+        Arrays.sort(current, 0, currentCount);
+        long[] swap = previous;
+        previous = current;
+        current = swap;
+        previousCount = currentCount;
+        currentCount = 0;
+    }
+
+    // Forgets every contact, for when the indices passed to collision() are
+    // about to refer to other satellites
+    public synchronized void resetContacts() {
+        previousCount = 0;
+        currentCount = 0;
+    }
+
+    // Recent lines for the view, or null when nothing changed or the last
+    // refresh was too recent
+    public synchronized String textIfDue(long nowNanos) {
+        if (!changed || nowNanos - lastRefresh < REFRESH_NANOS) return null;
+        changed = false;
+        lastRefresh = nowNanos;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) text.append(recent[(head + i) % recent.length]);
+        return text.toString();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop(Writer writer, boolean ownsOutput) {
+        List<String> batch = new ArrayList<>();
+        try {
+            while (!closed || !output.isEmpty()) {
+                String first = output.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                output.drainTo(batch);
+                for (String line : batch) writer.write(line);
+                batch.clear();
+                long dropped = droppedOutput.getAndSet(0);
+                if (dropped > 0) {
+                    writer.write("(" + dropped + " log lines dropped)\n");
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Collision log output failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                if (ownsOutput) writer.close();
+                else writer.flush();
+            } catch (IOException e) {
+                System.err.println("Collision log output failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Monte Carlo probability of collision for a flagged conjunction. Both
+// states are moved to the nominal time of closest approach, perturbed with
+// isotropic Gaussian position and velocity errors, and every sample pair is
+// propagated across a window around that time with the swept contact test.
+// Pc is the fraction of samples that touch, with a 95% Wilson interval.
+//
+// Samples are drawn in a fixed number of blocks, each on its own
+// SplittableRandom split from a per-conjunction seed, and the blocks are
+// spread over the pool in rounds. The sample streams do not depend on the
+// pool size, so the same seed gives the same Pc on any number of threads.
+// Sampling stops as soon as the interval is tight enough, Pc is clearly
+// negligible, or the cap is hit. submit() runs an estimate on a thread of
+// its own, so a screen can carry on while its conjunctions are scored.
+public class CollisionProbability implements AutoCloseable {
+
+    static final int BLOCKS = 16;                  // independent sample streams
+    static final int BATCH = 1024;                 // samples per block per round
+    static final int MAX_SAMPLES = 1 << 20;
+    static final double RELATIVE_HALF_WIDTH = 0.1; // converged when the interval is within 10% of Pc
+    static final double NEGLIGIBLE = 1e-5;         // stop once the upper bound is below this
+    static final double MAX_WINDOW = 100;          // time units either side of closest approach
+    private static final double Z95 = 1.959964;
+
+    public static class Result {
+        public final double pc, low, high;
+        public final long samples, hits;
+
+        Result(long hits, long samples) {
+            this.hits = hits;
+            this.samples = samples;
+            this.pc = (double) hits / samples;
+            // Wilson score interval: stays inside [0, 1] and is usable at zero hits
+            double z2 = Z95 * Z95;
+            double centre = (pc + z2 / (2 * samples)) / (1 + z2 / samples);
+            double half = Z95 * Math.sqrt(pc * (1 - pc) / samples + z2 / (4.0 * samples * samples)) / (1 + z2 / samples);
+            this.low = Math.max(0, centre - half);
+            this.high = Math.min(1, centre + half);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pc %.3e (95%% CI %.3e - %.3e, %d of %d samples)", pc, low, high, hits, samples);
+        }
+    }
+
+    private final String propagatorName;
+    private final double mu;
+    private final ExecutorService pool;
+    private final ExecutorService scorer;
+    private final long seed;
+
+    // propagator is a Propagator.forName name; each worker builds its own, as they are not thread-safe
+    public CollisionProbability(String propagator, double mu, int workers, long seed) {
+        Propagator.forName(propagator, mu); // fail fast on a bad name
+        this.propagatorName = propagator;
+        this.mu = mu;
+        this.seed = seed;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread thread = new Thread(r, "collision-probability");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scorer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "collision-probability-scorer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Pc for satellites i and j of store, whose closest approach falls in the next time unit.
+    // Sigmas are the 1-sigma position and velocity errors per axis for each object.
+    public Result estimate(SatelliteStore store, int i, int j,
+                           double positionSigmaI, double velocitySigmaI,
+                           double positionSigmaJ, double velocitySigmaJ) {
+        double[] a = {store.getX(i), store.getY(i), store.getZ(i), store.getVx(i), store.getVy(i), store.getVz(i)};
+        double[] b = {store.getX(j), store.getY(j), store.getZ(j), store.getVx(j), store.getVy(j), store.getVz(j)};
+        long pairSeed = seed ^ (store.getId(i).hashCode() * 0x9E3779B97F4A7C15L) ^ store.getId(j).hashCode();
+        return estimate(a, positionSigmaI, velocitySigmaI, store.getRadius(i),
+                b, positionSigmaJ, velocitySigmaJ, store.getRadius(j), pairSeed);
+    }
+
+    // estimate() in the background, one conjunction at a time in submission
+    // order; store must not change until the result is in
+    public Future<Result> submit(SatelliteStore store, int i, int j,
+                                 double positionSigmaI, double velocitySigmaI,
+                                 double positionSigmaJ, double velocitySigmaJ) {
+        return scorer.submit(() -> estimate(store, i, j, positionSigmaI, velocitySigmaI, positionSigmaJ, velocitySigmaJ));
+    }
+
+    public Result estimate(Satellite first, Satellite second, double positionSigma, double velocitySigma) {
+        double[] a = {first.getX(), first.getY(), first.getZ(), first.getVx(), first.getVy(), first.getVz()};
+        double[] b = {second.getX(), second.getY(), second.getZ(), second.getVx(), second.getVy(), second.getVz()};
+        long pairSeed = seed ^ (first.getId().hashCode() * 0x9E3779B97F4A7C15L) ^ second.getId().hashCode();
+        return estimate(a, positionSigma, velocitySigma, first.getRadius(),
+                b, positionSigma, velocitySigma, second.getRadius(), pairSeed);
+    }
+
+    @Override
+    public void close() {
+        scorer.shutdown();
+        pool.shutdown();
+    }
+
+    private Result estimate(double[] a, double positionSigmaA, double velocitySigmaA, double radiusA,
+                            double[] b, double positionSigmaB, double velocitySigmaB, double radiusB, long pairSeed) {
+        // Nominal closest approach within the step, both states moved there by the propagator
+        ClosestApproach nominal = ClosestApproach.compute(a[0] - b[0], a[1] - b[1], a[2] - b[2],
+                a[3] - b[3], a[4] - b[4], a[5] - b[5], 1);
+        if (nominal.time > 0) {
+            double[] x = {a[0], b[0]}, y = {a[1], b[1]}, z = {a[2], b[2]};
+            double[] vx = {a[3], b[3]}, vy = {a[4], b[4]}, vz = {a[5], b[5]};
+            Propagator.forName(propagatorName, mu).propagate(x, y, z, vx, vy, vz, 0, 2, nominal.time);
+            a = new double[]{x[0], y[0], z[0], vx[0], vy[0], vz[0]};
+            b = new double[]{x[1], y[1], z[1], vx[1], vy[1], vz[1]};
+        }
+        // Long enough for errors of a few sigma to shift the encounter in time
+        double dvx = a[3] - b[3], dvy = a[4] - b[4], dvz = a[5] - b[5];
+        double relativeSpeed = Math.sqrt(dvx * dvx + dvy * dvy + dvz * dvz);
+        double positionSigma = Math.hypot(positionSigmaA, positionSigmaB);
+        double window = relativeSpeed > 0 ? Math.min(MAX_WINDOW, 1 + 5 * positionSigma / relativeSpeed) : MAX_WINDOW;
+
+        SplittableRandom root = new SplittableRandom(pairSeed);
+        List<Sampler> samplers = new ArrayList<>();
+        for (int block = 0; block < BLOCKS; block++) {
+            samplers.add(new Sampler(root.split(), a, positionSigmaA, velocitySigmaA,
+                    b, positionSigmaB, velocitySigmaB, radiusA + radiusB, window));
+        }
+
+        long hits = 0, samples = 0;
+        try {
+            while (true) {
+                for (Future<Integer> round : pool.invokeAll(samplers)) hits += round.get();
+                samples += (long) BATCH * BLOCKS;
+                Result result = new Result(hits, samples);
+                boolean converged = hits >= 10 && result.high - result.low <= 2 * RELATIVE_HALF_WIDTH * result.pc;
+                if (converged || result.high < NEGLIGIBLE || samples >= MAX_SAMPLES) return result;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sampling", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sampling failed", e.getCause());
+        }
+    }
+
+    // One block: draws BATCH sample pairs per call and counts the ones in contact
+    private final class Sampler implements Callable<Integer> {
+        private final SplittableRandom random;
+        private final double[] a, b;
+        private final double positionSigmaA, velocitySigmaA, positionSigmaB, velocitySigmaB;
+        private final double contact, window;
+        private final Propagator propagator = Propagator.forName(propagatorName, mu);
+        private final boolean linear = propagator instanceof LinearPropagator;
+
+        // Sample states, both objects in one set of columns: a at k, b at BATCH + k
+        private final double[] x = new double[2 * BATCH], y = new double[2 * BATCH], z = new double[2 * BATCH];
+        private final double[] vx = new double[2 * BATCH], vy = new double[2 * BATCH], vz = new double[2 * BATCH];
+        private final boolean[] hit = new boolean[BATCH];
+
+        Sampler(SplittableRandom random, double[] a, double positionSigmaA, double velocitySigmaA,
+                double[] b, double positionSigmaB, double velocitySigmaB, double contact, double window) {
+            this.random = random;
+            this.a = a.clone();
+            this.b = b.clone();
+            this.positionSigmaA = positionSigmaA;
+            this.velocitySigmaA = velocitySigmaA;
+            this.positionSigmaB = positionSigmaB;
+            this.velocitySigmaB = velocitySigmaB;
+            this.contact = contact;
+            this.window = window;
+        }
+
+        @Override
+        public Integer call() {
+            for (int k = 0; k < BATCH; k++) {
+                perturb(a, positionSigmaA, velocitySigmaA, k);
+                perturb(b, positionSigmaB, velocitySigmaB, BATCH + k);
+                hit[k] = false;
+            }
+            if (linear) {
+                // Straight lines: one swept test over [-window, window] is exact
+                for (int k = 0; k < BATCH; k++) check(k, -window, 2 * window);
+            } else {
+                // Back to the start of the window, then forward in unit steps
+                propagator.propagate(x, y, z, vx, vy, vz, 0, 2 * BATCH, -window);
+                int steps = (int) Math.ceil(2 * window);
+                double dt = 2 * window / steps;
+                for (int s = 0; s < steps; s++) {
+                    for (int k = 0; k < BATCH; k++) {
+                        if (!hit[k]) check(k, 0, dt);
+                    }
+                    if (s + 1 < steps) propagator.propagate(x, y, z, vx, vy, vz, 0, 2 * BATCH, dt);
+                }
+            }
+            int hits = 0;
+            for (int k = 0; k < BATCH; k++) if (hit[k]) hits++;
+            return hits;
+        }
+
+        private void perturb(double[] state, double positionSigma, double velocitySigma, int k) {
+            x[k] = state[0] + positionSigma * gaussian();
+            y[k] = state[1] + positionSigma * gaussian();
+            z[k] = state[2] + positionSigma * gaussian();
+            vx[k] = state[3] + velocitySigma * gaussian();
+            vy[k] = state[4] + velocitySigma * gaussian();
+            vz[k] = state[5] + velocitySigma * gaussian();
+        }
+
+        // Swept test for sample k over [offset, offset + duration] from its current state
+        private void check(int k, double offset, double duration) {
+            int m = BATCH + k;
+            double dvx = vx[k] - vx[m], dvy = vy[k] - vy[m], dvz = vz[k] - vz[m];
+            double dx = x[k] - x[m] + dvx * offset, dy = y[k] - y[m] + dvy * offset, dz = z[k] - z[m] + dvz * offset;
+            if (ClosestApproach.missDistanceSquared(dx, dy, dz, dvx, dvy, dvz, duration) <= contact * contact) {
+                hit[k] = true;
+            }
+        }
+
+        // SplittableRandom has no nextGaussian before Java 17; Marsaglia polar method
+        private double spare;
+        private boolean hasSpare;
+
+        private double gaussian() {
+            if (hasSpare) {
+                hasSpare = false;
+                return spare;
+            }
+            double u, v, s;
+            do {
+                u = random.nextDouble(-1, 1);
+                v = random.nextDouble(-1, 1);
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double scale = Math.sqrt(-2 * Math.log(s) / s);
+            spare = v * scale;
+            hasSpare = true;
+            return u * scale;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+// One conjunction between two catalog entries, covering every consecutive
+// step the pair stayed within contact distance
+public class ConjunctionEvent {
+    public final int first, second;   // SatelliteStore indices, first < second
+    public final String firstId, secondId;
+    public final int startStep, endStep;
+    public final int closestStep;
+    public final double missDistance; // smallest over the event
+
+    public ConjunctionEvent(int first, int second, String firstId, String secondId,
+                            int startStep, int endStep, int closestStep, double missDistance) {
+        this.first = first;
+        this.second = second;
+        this.firstId = firstId;
+        this.secondId = secondId;
+        this.startStep = startStep;
+        this.endStep = endStep;
+        this.closestStep = closestStep;
+        this.missDistance = missDistance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Conjunction %s - %s steps %d-%d, miss distance %.3f at step %d",
+                firstId, secondId, startStep, endStep, missDistance, closestStep);
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+// Conjunction screening as a chain of filters, cheapest first, in the
+// style of operational conjunction assessment:
+//   1. altitude band: pairs whose geocentric distance ranges over the step
+//      (their perigee/apogee for that arc) cannot overlap are dropped, found
+//      with a sort-and-sweep so far-apart shells are never paired at all
+//   2. bounding box: the boxes swept by the two objects must overlap
+//   3. distance: start separation against contact plus relative travel,
+//      all squared, no sqrt
+//   4. refinement: exact closest approach over the step
+// Every filter is conservative, so the result equals the brute-force sweep.
+// Counts of pairs removed at each stage accumulate across calls.
+public class ConjunctionScreen {
+
+    public static class Counts {
+        public long steps, pairs;
+        public long removedByBand, removedByBox, removedByDistance, removedByRefinement;
+        public long collisions;
+
+        @Override
+        public String toString() {
+            return String.format("Screened %d pairs over %d steps:%n"
+                            + "  altitude band removed %d%n"
+                            + "  bounding box removed  %d%n"
+                            + "  distance removed      %d%n"
+                            + "  refinement removed    %d%n"
+                            + "  collisions            %d",
+                    pairs, steps, removedByBand, removedByBox, removedByDistance, removedByRefinement, collisions);
+        }
+    }
+
+    private final Counts counts = new Counts();
+
+    // Per-object bounds for the current step, reused between calls
+    private double[] low = new double[0], high = new double[0];
+    private double[] minX = new double[0], minY = new double[0], minZ = new double[0];
+    private double[] maxX = new double[0], maxY = new double[0], maxZ = new double[0];
+    private long[] order = new long[0];
+
+    // Pairs that touch at any time in [0, dt], sorted like the other sweeps
+    public void findCollisionsWithin(SatelliteStore store, double dt, PairList out) {
+        int n = store.size();
+        ensureCapacity(n);
+        bounds(store, dt);
+        out.clear();
+
+        long banded = 0, boxed = 0, near = 0;
+        for (int a = 0; a < n; a++) {
+            int i = (int) order[a];
+            for (int b = a + 1; b < n; b++) {
+                int j = (int) order[b];
+                // Sorted on a low bound rounded down, so every later entry starts above hi too
+                if (Float.intBitsToFloat((int) (order[b] >>> 32)) > high[i]) break;
+                if (low[i] > high[j]) continue;
+                banded++;
+
+                if (minX[i] > maxX[j] || minX[j] > maxX[i]
+                        || minY[i] > maxY[j] || minY[j] > maxY[i]
+                        || minZ[i] > maxZ[j] || minZ[j] > maxZ[i]) continue;
+                boxed++;
+
+                // |d| <= c + |dv| dt implies d^2 <= 2 c^2 + 2 |dv|^2 dt^2
+                double dx = store.x[i] - store.x[j], dy = store.y[i] - store.y[j], dz = store.z[i] - store.z[j];
+                double dvx = store.vx[i] - store.vx[j], dvy = store.vy[i] - store.vy[j], dvz = store.vz[i] - store.vz[j];
+                double contact = store.radius[i] + store.radius[j];
+                double travel = (dvx * dvx + dvy * dvy + dvz * dvz) * dt * dt;
+                if (dx * dx + dy * dy + dz * dz > 2 * contact * contact + 2 * travel) continue;
+                near++;
+
+                if (ClosestApproach.missDistanceSquared(dx, dy, dz, dvx, dvy, dvz, dt) <= contact * contact) {
+                    out.add(Math.min(i, j), Math.max(i, j));
+                }
+            }
+        }
+        out.sort();
+
+        long pairs = (long) n * (n - 1) / 2;
+        counts.steps++;
+        counts.pairs += pairs;
+        counts.removedByBand += pairs - banded;
+        counts.removedByBox += banded - boxed;
+        counts.removedByDistance += boxed - near;
+        counts.removedByRefinement += near - out.size();
+        counts.collisions += out.size();
+        if (Metrics.ENABLED) {
+            Metrics.BROAD_PHASE_PAIRS.add(boxed);
+            Metrics.PAIRS_TESTED.add(near);
+        }
+    }
+
+    public Counts counts() { return counts; }
+
+    // Distance band and box of each object's straight path over [0, dt],
+    // padded by its radius, plus the sweep order by band start
+    private void bounds(SatelliteStore store, double dt) {
+        int n = store.size();
+        for (int i = 0; i < n; i++) {
+            double x = store.x[i], y = store.y[i], z = store.z[i];
+            double ex = x + store.vx[i] * dt, ey = y + store.vy[i] * dt, ez = z + store.vz[i] * dt;
+            double r = store.radius[i];
+
+            // Closest point of the path to the centre, and the farther end
+            double nearest = Math.sqrt(ClosestApproach.missDistanceSquared(x, y, z,
+                    store.vx[i], store.vy[i], store.vz[i], dt));
+            double farthest = Math.sqrt(Math.max(x * x + y * y + z * z, ex * ex + ey * ey + ez * ez));
+            low[i] = Math.max(nearest - r, 0);
+            high[i] = farthest + r;
+
+            minX[i] = Math.min(x, ex) - r; maxX[i] = Math.max(x, ex) + r;
+            minY[i] = Math.min(y, ey) - r; maxY[i] = Math.max(y, ey) + r;
+            minZ[i] = Math.min(z, ez) - r; maxZ[i] = Math.max(z, ez) + r;
+
+            // Non-negative float bits sort like the values; rounding down keeps the sweep exit safe
+            float key = (float) low[i];
+            if (key > low[i]) key = Math.nextDown(key);
+            order[i] = ((long) Float.floatToIntBits(key) << 32) | i;
+        }
+        Arrays.sort(order, 0, n);
+    }
+
+    private void ensureCapacity(int n) {
+        if (low.length >= n) return;
+        low = new double[n]; high = new double[n];
+        minX = new double[n]; minY = new double[n]; minZ = new double[n];
+        maxX = new double[n]; maxY = new double[n]; maxZ = new double[n];
+        order = new long[n];
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Turns per-step collision lists into merged conjunction events.
+// Open events are kept in primitive arrays sorted by pair, the same order
+// PairList uses, so each step is a single merge pass. An event is streamed
+// to the sink as soon as the pair is no longer in contact.
+public class ConjunctionTracker {
+
+    private final SatelliteStore store;
+    private final Consumer<ConjunctionEvent> sink;
+
+    // Open events, sorted by packed pair
+    private long[] pairs = new long[16];
+    private int[] startSteps = new int[16];
+    private int[] closestSteps = new int[16];
+    private double[] missDistances = new double[16];
+    private int open;
+
+    // Scratch buffers swapped with the above each step
+    private long[] nextPairs = new long[16];
+    private int[] nextStartSteps = new int[16];
+    private int[] nextClosestSteps = new int[16];
+    private double[] nextMissDistances = new double[16];
+
+    private int lastStep;
+    private long emitted;
+    private ClosestListener closestListener;
+
+    // Told whenever an open event reaches a new closest step, its first step
+    // included, while the store still holds that step
+    public interface ClosestListener {
+        void closer(int first, int second, int step);
+    }
+
+    public ConjunctionTracker(SatelliteStore store, Consumer<ConjunctionEvent> sink) {
+        this.store = store;
+        this.sink = sink;
+    }
+
+    // collisions must be sorted (as the sweeps return them) and checked over [0, dt]
+    public void record(int step, PairList collisions, double dt) {
+        ensureScratch(open + collisions.size());
+        int a = 0, b = 0, n = 0;
+        while (a < open || b < collisions.size()) {
+            long current = b < collisions.size() ? pack(collisions.first(b), collisions.second(b)) : Long.MAX_VALUE;
+            if (a < open && pairs[a] < current) {
+                // Pair left contact: the event is complete
+                emit(a, step - 1);
+                a++;
+                continue;
+            }
+            double miss = store.missDistanceWithin(collisions.first(b), collisions.second(b), dt);
+            nextPairs[n] = current;
+            if (a < open && pairs[a] == current) {
+                nextStartSteps[n] = startSteps[a];
+                boolean closer = miss < missDistances[a];
+                nextClosestSteps[n] = closer ? step : closestSteps[a];
+                nextMissDistances[n] = closer ? miss : missDistances[a];
+                a++;
+                if (closer && closestListener != null) closestListener.closer(collisions.first(b), collisions.second(b), step);
+            } else {
+                nextStartSteps[n] = step;
+                nextClosestSteps[n] = step;
+                nextMissDistances[n] = miss;
+                if (closestListener != null) closestListener.closer(collisions.first(b), collisions.second(b), step);
+            }
+            n++;
+            b++;
+        }
+        swap();
+        open = n;
+        lastStep = step;
+    }
+
+    // Emits every event still open, e.g. at the end of the horizon
+    public void flush() {
+        for (int a = 0; a < open; a++) emit(a, lastStep);
+        open = 0;
+    }
+
+    public void setClosestListener(ClosestListener listener) {
+        this.closestListener = listener;
+    }
+
+    public int openEvents() { return open; }
+
+    public long emittedEvents() { return emitted; }
+
+    private void emit(int a, int endStep) {
+        int i = (int) (pairs[a] >>> 32), j = (int) pairs[a];
+        emitted++;
+        sink.accept(new ConjunctionEvent(i, j, store.getId(i), store.getId(j),
+                startSteps[a], endStep, closestSteps[a], missDistances[a]));
+    }
+
+    private static long pack(int i, int j) {
+        return ((long) i << 32) | (j & 0xFFFFFFFFL);
+    }
+
+    private void ensureScratch(int capacity) {
+        if (nextPairs.length >= capacity) return;
+        int size = Math.max(capacity, nextPairs.length * 2);
+        nextPairs = Arrays.copyOf(nextPairs, size);
+        nextStartSteps = Arrays.copyOf(nextStartSteps, size);
+        nextClosestSteps = Arrays.copyOf(nextClosestSteps, size);
+        nextMissDistances = Arrays.copyOf(nextMissDistances, size);
+    }
+
+    private void swap() {
+        long[] p = pairs; pairs = nextPairs; nextPairs = p;
+        int[] s = startSteps; startSteps = nextStartSteps; nextStartSteps = s;
+        int[] c = closestSteps; closestSteps = nextClosestSteps; nextClosestSteps = c;
+        double[] m = missDistances; missDistances = nextMissDistances; nextMissDistances = m;
+    }
+}
@@ -0,0 +1,167 @@
+import javafx.application.ConditionalFeature;
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.CullFace;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.Sphere;
+import javafx.scene.shape.TriangleMesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Satellite markers for the 3D simulators. Small constellations get one
+// Sphere per satellite; past MESH_THRESHOLD the whole constellation is drawn
+// as a few TriangleMesh batches (a tetrahedron per satellite) whose vertex
+// buffers are rewritten in bulk each frame, with one material for all.
+// -Dsatellite.render=spheres|mesh forces either mode. FX thread only.
+public class ConstellationView {
+
+    private static final int MESH_THRESHOLD = 1000;
+    private static final int SATELLITES_PER_MESH = 16_384;
+    private static final int VERTICES = 4;
+    // Regular tetrahedron around the origin
+    private static final float[] TETRAHEDRON = {1, 1, 1, 1, -1, -1, -1, 1, -1, -1, -1, 1};
+    private static final int[] FACES = {0, 1, 2, 0, 3, 1, 0, 2, 3, 1, 3, 2};
+
+    private final double scale;
+    private final Group root = new Group();
+    private final PhongMaterial material = new PhongMaterial(Color.RED);
+    private final String forcedMode = System.getProperty("satellite.render");
+
+    private double[] radii = new double[64];
+    private int count;
+    private boolean meshMode;
+
+    private final List<Sphere> spheres = new ArrayList<>();
+    private final List<TriangleMesh> meshes = new ArrayList<>();
+    private float[] points = new float[0];
+
+    public ConstellationView(double scale) {
+        this.scale = scale;
+        if (!Platform.isSupported(ConditionalFeature.SCENE3D)) {
+            System.err.println("3D is not supported by this graphics pipeline; "
+                    + "try -Dprism.order=sw for software rendering");
+        }
+    }
+
+    public Group getNode() { return root; }
+
+    public int size() { return count; }
+
+    public boolean isMeshMode() { return meshMode; }
+
+    public void add(double radius) {
+        addAll(new double[]{radius});
+    }
+
+    // Bulk add, e.g. when loading a snapshot: the meshes are resized once
+    public void addAll(double[] newRadii) {
+        if (count + newRadii.length > radii.length) {
+            radii = Arrays.copyOf(radii, Math.max(radii.length * 2, count + newRadii.length));
+        }
+        System.arraycopy(newRadii, 0, radii, count, newRadii.length);
+        count += newRadii.length;
+        if (meshMode != useMesh(count)) {
+            rebuild();
+        } else if (meshMode) {
+            rebuildMeshes();
+        } else {
+            for (int i = count - newRadii.length; i < count; i++) addSphere(radii[i]);
+        }
+    }
+
+    public void clear() {
+        count = 0;
+        rebuild();
+    }
+
+    public void render(PositionFrame frame) {
+        if (frame == null) return;
+        int n = Math.min(frame.count, count);
+        if (!meshMode) {
+            for (int i = 0; i < n; i++) {
+                Sphere sphere = spheres.get(i);
+                sphere.setTranslateX(frame.getX(i) * scale);
+                sphere.setTranslateY(frame.getY(i) * scale);
+                sphere.setTranslateZ(frame.getZ(i) * scale);
+            }
+            return;
+        }
+        for (int b = 0; b < meshes.size(); b++) {
+            int first = b * SATELLITES_PER_MESH;
+            int last = Math.min(first + SATELLITES_PER_MESH, n);
+            int p = 0;
+            for (int i = first; i < last; i++) {
+                float x = (float) (frame.getX(i) * scale);
+                float y = (float) (frame.getY(i) * scale);
+                float z = (float) (frame.getZ(i) * scale);
+                float size = (float) (radii[i] * scale / 5);
+                for (int v = 0; v < VERTICES * 3; v += 3) {
+                    points[p++] = x + TETRAHEDRON[v] * size;
+                    points[p++] = y + TETRAHEDRON[v + 1] * size;
+                    points[p++] = z + TETRAHEDRON[v + 2] * size;
+                }
+            }
+            if (p > 0) meshes.get(b).getPoints().set(0, points, 0, p);
+        }
+    }
+
+    private boolean useMesh(int n) {
+        if ("mesh".equals(forcedMode)) return true;
+        if ("spheres".equals(forcedMode)) return false;
+        return n > MESH_THRESHOLD;
+    }
+
+    private void rebuild() {
+        root.getChildren().clear();
+        spheres.clear();
+        meshes.clear();
+        meshMode = useMesh(count);
+        if (meshMode) {
+            rebuildMeshes();
+        } else {
+            for (int i = 0; i < count; i++) addSphere(radii[i]);
+        }
+    }
+
+    private void addSphere(double radius) {
+        Sphere sphere = new Sphere(radius * scale / 5); // scaled for visibility
+        sphere.setMaterial(material);
+        spheres.add(sphere);
+        root.getChildren().add(sphere);
+    }
+
+    // Sizes the batches for the current count; positions arrive with the next render
+    private void rebuildMeshes() {
+        int batches = (count + SATELLITES_PER_MESH - 1) / SATELLITES_PER_MESH;
+        while (meshes.size() < batches) {
+            TriangleMesh mesh = new TriangleMesh();
+            mesh.getTexCoords().addAll(0, 0);
+            MeshView view = new MeshView(mesh);
+            view.setMaterial(material);
+            view.setCullFace(CullFace.NONE);
+            meshes.add(mesh);
+            root.getChildren().add(view);
+        }
+        for (int b = 0; b < batches; b++) {
+            int inBatch = Math.min(SATELLITES_PER_MESH, count - b * SATELLITES_PER_MESH);
+            TriangleMesh mesh = meshes.get(b);
+            if (mesh.getPoints().size() == inBatch * VERTICES * 3) continue;
+            mesh.getPoints().resize(inBatch * VERTICES * 3);
+            int[] faces = new int[inBatch * FACES.length * 2];
+            int f = 0;
+            for (int i = 0; i < inBatch; i++) {
+                for (int vertex : FACES) {
+                    faces[f++] = i * VERTICES + vertex;
+                    faces[f++] = 0; // single texture coordinate
+                }
+            }
+            mesh.getFaces().setAll(faces);
+        }
+        int needed = Math.min(count, SATELLITES_PER_MESH) * VERTICES * 3;
+        if (points.length < needed) points = new float[needed];
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Precomputed ephemerides for repeated predictions over the same horizon.
+// Each satellite is propagated once, from its current state, in knots of a
+// fixed spacing; position and velocity at every knot are kept, and any time
+// in between is answered by cubic Hermite interpolation on the segment.
+// Tables are keyed by id and remember the state they were built from, so a
+// satellite whose state vector has changed is rebuilt on its next lookup.
+// Least recently used tables are dropped to make room before a build, so
+// the tables held never exceed the budget (unless one table alone does).
+//
+// Not thread-safe; the propagator is shared by every table build.
+public class EphemerisCache {
+
+    private static final int KNOT = 6;                // x, y, z, vx, vy, vz
+    private static final long ENTRY_OVERHEAD = 128;   // map entry, table object and array headers, roughly
+    private static final int CHUNK = 1024;            // most tables built in one propagation pass
+
+    private final Propagator propagator;
+    private final double spacing;
+    private final int segments;
+    private final long budget;
+
+    // Access order, so iteration starts at the least recently used table
+    private final Map<String, Table> tables = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits, misses, evictions;
+
+    // Scratch columns for building tables in bulk
+    private double[] x = new double[0], y = x, z = x, vx = x, vy = x, vz = x;
+
+    private static final class Table {
+        final double[] epoch;  // state the table was propagated from
+        final double[] knots;  // KNOT values per knot, segments + 1 knots
+
+        Table(double[] epoch, double[] knots) {
+            this.epoch = epoch;
+            this.knots = knots;
+        }
+    }
+
+    // Tables cover [0, horizon] from the state at lookup, in knots spacing apart
+    public EphemerisCache(Propagator propagator, double spacing, double horizon, long budgetBytes) {
+        if (spacing <= 0 || horizon <= 0) throw new IllegalArgumentException("spacing and horizon must be positive");
+        this.propagator = propagator;
+        this.spacing = spacing;
+        this.segments = Math.max(1, (int) Math.ceil(horizon / spacing));
+        this.budget = budgetBytes;
+    }
+
+    // Position of satellite i of store, t after its current state, into out[0..2]
+    public void position(SatelliteStore store, int i, double t, double[] out) {
+        if (t < 0 || t > segments * spacing) throw new IllegalArgumentException("Time outside the horizon: " + t);
+        Table table = lookup(store, i);
+        if (table == null) {
+            build(store, new int[]{i}, 0, 1);
+            table = tables.get(store.getId(i));
+        }
+        int k = Math.min((int) (t / spacing), segments - 1);
+        double s = t / spacing - k;
+        double s2 = s * s, s3 = s2 * s;
+        // Hermite basis; the velocity terms are scaled to the segment length
+        double h00 = 2 * s3 - 3 * s2 + 1, h01 = 3 * s2 - 2 * s3;
+        double h10 = (s3 - 2 * s2 + s) * spacing, h11 = (s3 - s2) * spacing;
+        double[] knots = table.knots;
+        int a = k * KNOT, b = a + KNOT;
+        for (int c = 0; c < 3; c++) {
+            out[c] = h00 * knots[a + c] + h10 * knots[a + 3 + c] + h01 * knots[b + c] + h11 * knots[b + 3 + c];
+        }
+    }
+
+    // Builds missing or stale tables for store, in bulk propagation passes,
+    // until the budget is full; the rest are built on demand by position()
+    public void prefetch(SatelliteStore store) {
+        int[] missing = new int[store.size()];
+        int count = 0, cached = 0;
+        for (int i = 0; i < store.size(); i++) {
+            if (lookup(store, i) == null) missing[count++] = i;
+            else cached++;
+        }
+        long capacity = budget / tableBytes();
+        count = (int) Math.max(0, Math.min(count, capacity - cached));
+        for (int from = 0; from < count; from += CHUNK) {
+            build(store, missing, from, Math.min(CHUNK, count - from));
+        }
+    }
+
+    public void invalidate(String id) {
+        Table table = tables.remove(id);
+        if (table != null) bytes -= size(table);
+    }
+
+    public void clear() {
+        tables.clear();
+        bytes = 0;
+    }
+
+    public int size() { return tables.size(); }
+
+    public long bytes() { return bytes; }
+
+    public long hits() { return hits; }
+
+    public long misses() { return misses; }
+
+    public long evictions() { return evictions; }
+
+    // The cached table for i, or null if there is none or it was built from another state
+    private Table lookup(SatelliteStore store, int i) {
+        String id = store.getId(i);
+        Table table = tables.get(id);
+        if (table != null && !sameState(table.epoch, store, i)) {
+            invalidate(id);
+            table = null;
+        }
+        if (table == null) misses++;
+        else hits++;
+        return table;
+    }
+
+    private static boolean sameState(double[] epoch, SatelliteStore store, int i) {
+        return epoch[0] == store.x[i] && epoch[1] == store.y[i] && epoch[2] == store.z[i]
+                && epoch[3] == store.vx[i] && epoch[4] == store.vy[i] && epoch[5] == store.vz[i];
+    }
+
+    // Propagates satellites indices[from..from+count-1] of store together
+    // across the horizon, after evicting enough to keep within the budget
+    private void build(SatelliteStore store, int[] indices, int from, int count) {
+        evict(count * tableBytes());
+        if (x.length < count) {
+            x = new double[count]; y = new double[count]; z = new double[count];
+            vx = new double[count]; vy = new double[count]; vz = new double[count];
+        }
+        double[][] knots = new double[count][(segments + 1) * KNOT];
+        for (int k = 0; k < count; k++) {
+            int i = indices[from + k];
+            x[k] = store.x[i]; y[k] = store.y[i]; z[k] = store.z[i];
+            vx[k] = store.vx[i]; vy[k] = store.vy[i]; vz[k] = store.vz[i];
+        }
+        for (int s = 0; s <= segments; s++) {
+            if (s > 0) propagator.propagate(x, y, z, vx, vy, vz, 0, count, spacing);
+            int at = s * KNOT;
+            for (int k = 0; k < count; k++) {
+                double[] table = knots[k];
+                table[at] = x[k]; table[at + 1] = y[k]; table[at + 2] = z[k];
+                table[at + 3] = vx[k]; table[at + 4] = vy[k]; table[at + 5] = vz[k];
+            }
+        }
+        for (int k = 0; k < count; k++) {
+            int i = indices[from + k];
+            double[] epoch = {store.x[i], store.y[i], store.z[i], store.vx[i], store.vy[i], store.vz[i]};
+            Table table = new Table(epoch, knots[k]);
+            Table replaced = tables.put(store.getId(i), table);
+            if (replaced != null) bytes -= size(replaced);
+            bytes += size(table);
+        }
+    }
+
+    // Drops least recently used tables until needed more bytes fit in the budget
+    private void evict(long needed) {
+        Iterator<Table> eldest = tables.values().iterator();
+        while (bytes + needed > budget && eldest.hasNext()) {
+            bytes -= size(eldest.next());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private long tableBytes() {
+        return ENTRY_OVERHEAD + 8L * (KNOT + (segments + 1) * KNOT);
+    }
+
+    private static long size(Table table) {
+        return ENTRY_OVERHEAD + 8L * (table.epoch.length + table.knots.length);
+    }
+}
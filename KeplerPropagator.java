@@ -0,0 +1,81 @@
+// Exact two-body propagation for elliptical, inclined (and hyperbolic)
+// orbits using the universal-variable form of Kepler's equation and the
+// Lagrange f and g coefficients. No integration error, cost independent of dt.
+public class KeplerPropagator implements Propagator {
+
+    private static final int MAX_ITERATIONS = 50;
+    private static final double TOLERANCE = 1e-12;
+
+    private final double mu;
+    private final double sqrtMu;
+
+    public KeplerPropagator(double mu) {
+        this.mu = mu;
+        this.sqrtMu = Math.sqrt(mu);
+    }
+
+    @Override
+    public void propagate(double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz,
+                          int from, int to, double dt) {
+        for (int i = from; i < to; i++) {
+            double rx = x[i], ry = y[i], rz = z[i];
+            double ux = vx[i], uy = vy[i], uz = vz[i];
+            double r0 = Math.sqrt(rx * rx + ry * ry + rz * rz);
+            double v2 = ux * ux + uy * uy + uz * uz;
+            double vr0 = (rx * ux + ry * uy + rz * uz) / r0;
+            double alpha = 2 / r0 - v2 / mu; // 1 / semi-major axis
+
+            double chi = solveUniversalAnomaly(dt, r0, vr0, alpha);
+            double chi2 = chi * chi;
+            double psi = alpha * chi2;
+            double c2 = stumpffC(psi), c3 = stumpffS(psi);
+
+            double f = 1 - chi2 / r0 * c2;
+            double g = dt - chi2 * chi / sqrtMu * c3;
+            double nx = f * rx + g * ux, ny = f * ry + g * uy, nz = f * rz + g * uz;
+            double r = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            double fDot = sqrtMu / (r * r0) * (psi * chi * c3 - chi);
+            double gDot = 1 - chi2 / r * c2;
+
+            x[i] = nx; y[i] = ny; z[i] = nz;
+            vx[i] = fDot * rx + gDot * ux;
+            vy[i] = fDot * ry + gDot * uy;
+            vz[i] = fDot * rz + gDot * uz;
+        }
+    }
+
+    // Newton iteration on the universal Kepler equation
+    private double solveUniversalAnomaly(double dt, double r0, double vr0, double alpha) {
+        double chi = sqrtMu * Math.abs(alpha) * dt;
+        for (int k = 0; k < MAX_ITERATIONS; k++) {
+            double chi2 = chi * chi;
+            double psi = alpha * chi2;
+            double c2 = stumpffC(psi), c3 = stumpffS(psi);
+            double fn = r0 * vr0 / sqrtMu * chi2 * c2 + (1 - alpha * r0) * chi2 * chi * c3
+                    + r0 * chi - sqrtMu * dt;
+            double dfn = r0 * vr0 / sqrtMu * chi * (1 - psi * c3) + (1 - alpha * r0) * chi2 * c2 + r0;
+            double step = fn / dfn;
+            chi -= step;
+            if (Math.abs(step) < TOLERANCE * Math.max(1, Math.abs(chi))) break;
+        }
+        return chi;
+    }
+
+    private static double stumpffC(double psi) {
+        if (psi > 1e-8) return (1 - Math.cos(Math.sqrt(psi))) / psi;
+        if (psi < -1e-8) return (Math.cosh(Math.sqrt(-psi)) - 1) / -psi;
+        return 0.5 - psi / 24;
+    }
+
+    private static double stumpffS(double psi) {
+        if (psi > 1e-8) {
+            double s = Math.sqrt(psi);
+            return (s - Math.sin(s)) / (s * s * s);
+        }
+        if (psi < -1e-8) {
+            double s = Math.sqrt(-psi);
+            return (Math.sinh(s) - s) / (s * s * s);
+        }
+        return 1.0 / 6 - psi / 120;
+    }
+}
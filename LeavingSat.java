@@ -5,24 +5,41 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
 import javafx.scene.shape.Sphere;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.animation.AnimationTimer;
 import javafx.scene.transform.Rotate;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class LeavingSat extends Application {
+public class LeavingSat extends Application implements SimulationLoop.Model {
 
+    // Owned by the simulation thread; the FX thread only touches the view and log
     private List<Satellite> satellites = new ArrayList<>();
-    private Group satelliteGroup = new Group();
+    private ConstellationView constellation = new ConstellationView(SCALE);
     private TextArea log = new TextArea();
+    private SimulationLoop loop = new SimulationLoop(this);
+    private CollisionLog collisionLog = CollisionLog.open(LOG_LINES);
+
+    // Simulation thread: positions mirrored into columns every tick, so the
+    // exact test only runs on the pairs the neighbour list finds close
+    private SatelliteStore positions = SatelliteStore.blank(0);
+    private final NeighbourList neighbours = new NeighbourList(0);
+    private final PairList contacts = new PairList();
 
     private static final double EARTH_RADIUS = 50;
 
     private static final double SCALE = 2.0; // scale for positions
+    private static final int TICKS_PER_SECOND = 60;
+    private static final int LOG_LINES = 200;
 
     public static void main(String[] args) {
+        // --software renders without GPU acceleration
+        if (Arrays.asList(args).contains("--software")) System.setProperty("prism.order", "sw");
         launch(args);
     }
 
@@ -35,7 +52,7 @@ public class LeavingSat extends Application {
         PhongMaterial earthMat = new PhongMaterial(Color.BLUE);
         earth.setMaterial(earthMat);
 
-        Group world = new Group(earth, satelliteGroup);
+        Group world = new Group(earth, constellation.getNode());
 
         // Rotate world slightly for better view
         world.getTransforms().addAll(new Rotate(-20, Rotate.X_AXIS),
@@ -69,25 +86,25 @@ public class LeavingSat extends Application {
 
             Satellite sat = new Satellite(id, pos[0], pos[1], pos[2],
                     vel[0], vel[1], vel[2], radius);
-            satellites.add(sat);
-
-            Sphere satSphere = new Sphere(radius * SCALE / 5); // scaled for visibility
-            PhongMaterial mat = new PhongMaterial(Color.RED);
-            satSphere.setMaterial(mat);
-            sat.setSphere(satSphere);
-            satelliteGroup.getChildren().add(satSphere);
+            constellation.add(radius);
+            loop.execute(() -> satellites.add(sat));
 
-            log.appendText("Added " + id + "\n");
+            collisionLog.post("Added " + id + "\n");
         });
 
-        predictBtn.setOnAction(e -> predictFuturePositions(100));
+        predictBtn.setOnAction(e -> loop.execute(() -> predictFuturePositions(100)));
+
+        Button saveBtn = new Button("Save Snapshot");
+        Button loadBtn = new Button("Load Snapshot");
+        saveBtn.setOnAction(e -> saveSnapshot(stage));
+        loadBtn.setOnAction(e -> loadSnapshot(stage));
 
         log.setPrefHeight(150);
         controls.getChildren().addAll(new Label("ID:"), idField,
                 new Label("Position (x,y,z):"), posField,
                 new Label("Velocity (vx,vy,vz):"), velField,
                 new Label("Radius:"), radiusField,
-                addBtn, predictBtn, log);
+                addBtn, predictBtn, saveBtn, loadBtn, log);
 
         root.setCenter(subScene);
         root.setRight(controls);
@@ -97,44 +114,153 @@ public class LeavingSat extends Application {
         stage.setTitle("3D Satellite Collision Simulator");
         stage.show();
 
-        // Animation loop
+        // Render loop: only reads the latest published frame
         AnimationTimer timer = new AnimationTimer() {
+            private long lastFrame;
+
             @Override
             public void handle(long now) {
-                for (Satellite s : satellites) {
-                    s.updatePosition();
-                }
-                checkCollisions();
+                if (Metrics.ENABLED && lastFrame != 0) Metrics.FRAME_NANOS.record(now - lastFrame);
+                lastFrame = now;
+                constellation.render(loop.latestFrame());
+                String text = collisionLog.textIfDue(now);
+                if (text != null) showLog(text);
             }
         };
         timer.start();
+        loop.setErrorHandler(collisionLog::post);
+        loop.start(TICKS_PER_SECOND);
+    }
+
+    @Override
+    public void stop() {
+        loop.stop();
+        collisionLog.close();
+    }
+
+    // FX thread: the log view shows the recent lines only, scrolled to the end
+    private void showLog(String text) {
+        log.setText(text);
+        log.positionCaret(text.length());
+    }
+
+    // Simulation thread
+    @Override
+    public void tick() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        for (Satellite s : satellites) {
+            s.updatePosition();
+        }
+        if (Metrics.ENABLED) Metrics.PROPAGATION_NANOS.record(System.nanoTime() - start);
+        checkCollisions();
+    }
+
+    // Simulation thread
+    @Override
+    public PositionFrame capture(long tick) {
+        int n = satellites.size();
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        for (int i = 0; i < n; i++) {
+            Satellite s = satellites.get(i);
+            x[i] = s.x;
+            y[i] = s.y;
+            z[i] = s.z;
+        }
+        return new PositionFrame(tick, x, y, z);
+    }
+
+    private void saveSnapshot(Stage stage) {
+        File file = snapshotChooser().showSaveDialog(stage);
+        if (file == null) return;
+        loop.execute(() -> {
+            SatelliteStore store = new SatelliteStore(satellites.size());
+            for (Satellite s : satellites) store.add(s.id, s.x, s.y, s.z, s.vx, s.vy, s.vz, s.radius);
+            try {
+                Snapshot.write(store, file);
+                collisionLog.post("Saved " + store.size() + " satellites to " + file.getName() + "\n");
+            } catch (IOException | IllegalArgumentException ex) {
+                collisionLog.post("Could not save snapshot: " + ex.getMessage() + "\n");
+            }
+        });
     }
 
+    private void loadSnapshot(Stage stage) {
+        File file = snapshotChooser().showOpenDialog(stage);
+        if (file == null) return;
+        List<Satellite> loaded = new ArrayList<>();
+        try {
+            Snapshot snapshot = Snapshot.map(file);
+            for (int i = 0; i < snapshot.size(); i++) {
+                loaded.add(new Satellite(snapshot.getId(i), snapshot.getX(i), snapshot.getY(i), snapshot.getZ(i),
+                        snapshot.getVx(i), snapshot.getVy(i), snapshot.getVz(i), snapshot.getRadius(i)));
+            }
+        } catch (IOException ex) {
+            collisionLog.post("Could not load snapshot: " + ex.getMessage() + "\n");
+            return;
+        }
+        double[] radii = new double[loaded.size()];
+        for (int i = 0; i < radii.length; i++) radii[i] = loaded.get(i).radius;
+        constellation.clear();
+        constellation.addAll(radii);
+        loop.execute(() -> {
+            satellites.clear();
+            satellites.addAll(loaded);
+            collisionLog.resetContacts();
+        });
+        collisionLog.post("Loaded " + loaded.size() + " satellites from " + file.getName() + "\n");
+    }
+
+    private FileChooser snapshotChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Satellite snapshot", "*.sat"));
+        return chooser;
+    }
+
+    // Simulation thread
     private void checkCollisions() {
-        for (int i = 0; i < satellites.size(); i++) {
-            for (int j = i + 1; j < satellites.size(); j++) {
-                if (satellites.get(i).collidesWith(satellites.get(j))) {
-                    log.appendText("⚠ Collision detected between "
-                            + satellites.get(i).id + " and "
-                            + satellites.get(j).id + "\n");
-                }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int n = satellites.size();
+        if (positions.size() != n) positions = SatelliteStore.blank(n);
+        for (int i = 0; i < n; i++) {
+            Satellite s = satellites.get(i);
+            // Velocities per tick, matching updatePosition()
+            positions.update(i, s.x, s.y, s.z, s.vx * 0.1, s.vy * 0.1, s.vz * 0.1, s.radius);
+        }
+        // Pairs touching anywhere in the coming tick include every pair touching now
+        neighbours.findCollisionsWithin(positions, 1, contacts);
+        int hits = 0;
+        for (int k = 0; k < contacts.size(); k++) {
+            int i = contacts.first(k), j = contacts.second(k);
+            if (satellites.get(i).collidesWith(satellites.get(j))) {
+                collisionLog.collision(i, j, satellites.get(i).id, satellites.get(j).id);
+                hits++;
             }
         }
+        collisionLog.endTick();
+        if (Metrics.ENABLED) {
+            Metrics.SWEEP_NANOS.record(System.nanoTime() - start);
+            Metrics.CONJUNCTIONS.add(hits);
+        }
     }
 
+    // Simulation thread
     private void predictFuturePositions(int steps) {
-        log.appendText("Prediction (" + steps + " steps ahead):\n");
-        for (int step = 1; step <= steps; step++) {
-            for (int i = 0; i < satellites.size(); i++) {
-                for (int j = i + 1; j < satellites.size(); j++) {
-                    if (satellites.get(i).futureCollision(satellites.get(j), step)) {
-                        log.appendText("   Possible collision between "
-                                + satellites.get(i).id + " and "
-                                + satellites.get(j).id + " at step " + step + "\n");
-                    }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        collisionLog.post("Prediction (" + steps + " steps ahead):\n");
+        for (int i = 0; i < satellites.size(); i++) {
+            for (int j = i + 1; j < satellites.size(); j++) {
+                Satellite a = satellites.get(i);
+                Satellite b = satellites.get(j);
+                ClosestApproach ca = a.closestApproach(b, steps);
+                if (ca.missDistance < a.radius + b.radius) {
+                    collisionLog.post("   Possible collision between "
+                            + a.id + " and " + b.id
+                            + " at step " + String.format("%.1f", ca.time)
+                            + " (miss distance " + String.format("%.2f", ca.missDistance) + ")\n");
                 }
             }
         }
+        if (Metrics.ENABLED) Metrics.PREDICTION_NANOS.record(System.nanoTime() - start);
     }
 
     private double[] parseTriple(String text) {
@@ -150,7 +276,6 @@ public class LeavingSat extends Application {
         double x, y, z;
         double vx, vy, vz;
         double radius;
-        Sphere sphere;
 
         Satellite(String id, double x, double y, double z,
                   double vx, double vy, double vz, double radius) {
@@ -160,17 +285,10 @@ public class LeavingSat extends Application {
             this.radius = radius;
         }
 
-        void setSphere(Sphere s) { this.sphere = s; }
-
         void updatePosition() {
             x += vx * 0.1; // scale down speed
             y += vy * 0.1;
             z += vz * 0.1;
-            if (sphere != null) {
-                sphere.setTranslateX(x * SCALE);
-                sphere.setTranslateY(y * SCALE);
-                sphere.setTranslateZ(z * SCALE);
-            }
         }
 
         boolean collidesWith(Satellite other) {
@@ -181,20 +299,15 @@ public class LeavingSat extends Application {
             return distance < this.radius + other.radius;
         }
 
-        boolean futureCollision(Satellite other, int steps) {
-            double fx = this.x + this.vx * 0.1 * steps;
-            double fy = this.y + this.vy * 0.1 * steps;
-            double fz = this.z + this.vz * 0.1 * steps;
-
-            double ox = other.x + other.vx * 0.1 * steps;
-            double oy = other.y + other.vy * 0.1 * steps;
-            double oz = other.z + other.vz * 0.1 * steps;
+        // Closest approach within the next `steps` animation steps; time is in steps
+        ClosestApproach closestApproach(Satellite other, int steps) {
+            return ClosestApproach.compute(x - other.x, y - other.y, z - other.z,
+                    (vx - other.vx) * 0.1, (vy - other.vy) * 0.1, (vz - other.vz) * 0.1, steps);
+        }
 
-            double dx = fx - ox;
-            double dy = fy - oy;
-            double dz = fz - oz;
-            double distance = Math.sqrt(dx*dx + dy*dy + dz*dz);
-            return distance < this.radius + other.radius;
+        // True if the pair touches at any point in the next `steps` steps, not just at the last one
+        boolean futureCollision(Satellite other, int steps) {
+            return closestApproach(other, steps).missDistance < this.radius + other.radius;
         }
     }
 }
@@ -0,0 +1,11 @@
+// Straight-line motion, the model Satellite.move has always used
+public class LinearPropagator implements Propagator {
+
+    @Override
+    public void propagate(double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz,
+                          int from, int to, double dt) {
+        for (int i = from; i < to; i++) x[i] += vx[i] * dt;
+        for (int i = from; i < to; i++) y[i] += vy[i] * dt;
+        for (int i = from; i < to; i++) z[i] += vz[i] * dt;
+    }
+}
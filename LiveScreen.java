@@ -0,0 +1,236 @@
+import java.util.*;
+
+// Keeps a catalog screened while state vectors stream in. Each insert,
+// update or removal refiles only that satellite in the spatial hash and
+// re-checks it against its neighbours over the look-ahead horizon, so the
+// cost of an update does not grow with the catalog.
+// Every state carries the epoch it was measured at, and neighbours are
+// moved in a straight line to the epoch of the update before a pair is
+// checked. Updates more than maxAge behind the newest epoch seen are
+// rejected, and stored states that fall that far behind are moved up to
+// it, so a filed position is never more than maxAge of travel from where
+// the satellite is; the cells are sized to cover that.
+// A pair is alerted once when it starts to conjunct and again only after
+// an update has cleared it.
+public class LiveScreen {
+
+    public interface Listener {
+        // approach is measured from epoch
+        void alert(String firstId, String secondId, double epoch, ClosestApproach approach);
+    }
+
+    private final SatelliteStore store;
+    private final double horizon, maxAge;
+    private final Listener listener;
+    private final SpatialHash grid;
+    private final PairList pairs = new PairList();
+
+    // Largest radius and speed the cells are sized for
+    private double maxRadius, maxSpeed;
+
+    // Epoch of each stored state, by index, and the newest epoch seen
+    private double[] epochs;
+    private double clock;
+    // Stored states by epoch, oldest first; stamps of states since replaced
+    // or removed are skipped when they come up
+    private final PriorityQueue<Stamp> byEpoch = new PriorityQueue<>(Comparator.comparingDouble(s -> s.epoch));
+
+    private static final class Stamp {
+        final String id;
+        final double epoch;
+
+        Stamp(String id, double epoch) {
+            this.id = id;
+            this.epoch = epoch;
+        }
+    }
+
+    // Partners each satellite is currently alerted with, by id
+    private final Map<String, Set<String>> partners = new HashMap<>();
+
+    private long updates, alerts;
+
+    // Screens the satellites already in store once, reporting through
+    // listener; their states are taken to be at epoch 0
+    public LiveScreen(SatelliteStore store, double horizon, double maxAge, Listener listener) {
+        this.store = store;
+        this.horizon = horizon;
+        this.maxAge = maxAge;
+        this.listener = listener;
+        this.maxRadius = store.maxRadius();
+        this.maxSpeed = store.maxSpeed();
+        this.epochs = new double[Math.max(store.size(), 16)];
+        for (int i = 0; i < store.size(); i++) byEpoch.add(new Stamp(store.getId(i), 0));
+        this.grid = new SpatialHash(cellSize());
+        grid.findCollisionsWithin(store, horizon, pairs);
+        for (int k = 0; k < pairs.size(); k++) report(pairs.first(k), pairs.second(k), 0);
+    }
+
+    // Inserts the satellite, or replaces its state if the id is known. The
+    // state is measured at epoch, which may not be more than maxAge behind
+    // the newest epoch seen.
+    public void upsert(String id, double epoch, double x, double y, double z,
+                       double vx, double vy, double vz, double radius) {
+        if (epoch < clock - maxAge) {
+            throw new IllegalArgumentException("State at epoch " + epoch + " is more than " + maxAge
+                    + " behind the feed, which is at " + clock);
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int i = store.indexOf(id);
+        boolean added = i < 0;
+        if (added) {
+            i = store.add(id, x, y, z, vx, vy, vz, radius);
+            if (i >= epochs.length) epochs = Arrays.copyOf(epochs, Math.max(epochs.length * 2, i + 1));
+        } else {
+            store.update(i, x, y, z, vx, vy, vz, radius);
+        }
+        epochs[i] = epoch;
+        byEpoch.add(new Stamp(id, epoch));
+
+        double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        if (radius > maxRadius || speed > maxSpeed) {
+            // Cells too small for the new object: size them for it and refile everything
+            maxRadius = Math.max(maxRadius, radius);
+            maxSpeed = Math.max(maxSpeed, speed);
+            grid.setCellSize(cellSize());
+            grid.build(store);
+        } else if (added) {
+            grid.insert(store, i);
+        } else {
+            grid.update(store, i);
+        }
+        if (epoch > clock) {
+            clock = epoch;
+            catchUp();
+        }
+        rescreen(i);
+        updates++;
+        if (Metrics.ENABLED) Metrics.UPDATE_NANOS.record(System.nanoTime() - start);
+    }
+
+    // One feed line: a catalog row (id,x,y,z,vx,vy,vz,radius), optionally
+    // followed by the epoch of the state, inserts or updates; a row without
+    // an epoch is taken to be at the newest epoch seen. "remove,ID" removes.
+    // Blank lines, '#' comments and the catalog header are ignored.
+    public void apply(String line) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#") || line.startsWith("id,")) return;
+        String[] fields = line.split(",");
+        if (fields.length == 2 && fields[0].trim().equals("remove")) {
+            if (!remove(fields[1].trim())) throw new IllegalArgumentException("Unknown satellite: " + fields[1].trim());
+            return;
+        }
+        if (fields.length != 8 && fields.length != 9) {
+            throw new IllegalArgumentException("Expected 8 or 9 fields, found " + fields.length);
+        }
+        double[] v = new double[fields.length - 1];
+        for (int k = 0; k < v.length; k++) v[k] = Double.parseDouble(fields[k + 1].trim());
+        double epoch = v.length == 8 ? v[7] : clock;
+        upsert(fields[0].trim(), epoch, v[0], v[1], v[2], v[3], v[4], v[5], v[6]);
+    }
+
+    // Returns false if the id is unknown
+    public boolean remove(String id) {
+        int i = store.indexOf(id);
+        if (i < 0) return false;
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int last = store.size() - 1;
+        grid.remove(i);
+        if (i != last) grid.remove(last);
+        int moved = store.remove(i);
+        if (moved >= 0) {
+            epochs[i] = epochs[moved];
+            grid.insert(store, i);
+        }
+
+        Set<String> cleared = partners.remove(id);
+        if (cleared != null) {
+            for (String other : cleared) forget(other, id);
+        }
+        updates++;
+        if (Metrics.ENABLED) Metrics.UPDATE_NANOS.record(System.nanoTime() - start);
+        return true;
+    }
+
+    public long updates() { return updates; }
+
+    public long alerts() { return alerts; }
+
+    public double epoch() { return clock; }
+
+    // Size that keeps every pair able to touch within the horizon in the same
+    // or touching cells, with either state up to maxAge away from the other's epoch
+    private double cellSize() {
+        return 2 * maxRadius + maxSpeed * (2 * horizon + maxAge);
+    }
+
+    // Moves states that have fallen more than maxAge behind up to the newest
+    // epoch. A straight-line move does not change the trajectory, so no
+    // alert changes, only where the satellite is filed.
+    private void catchUp() {
+        while (!byEpoch.isEmpty() && byEpoch.peek().epoch < clock - maxAge) {
+            Stamp stamp = byEpoch.poll();
+            int k = store.indexOf(stamp.id);
+            if (k < 0 || epochs[k] != stamp.epoch) continue;
+            double dt = clock - epochs[k];
+            store.update(k, store.x[k] + store.vx[k] * dt, store.y[k] + store.vy[k] * dt,
+                    store.z[k] + store.vz[k] * dt, store.vx[k], store.vy[k], store.vz[k], store.radius[k]);
+            epochs[k] = clock;
+            grid.update(store, k);
+            byEpoch.add(new Stamp(stamp.id, clock));
+        }
+    }
+
+    // Alerts new conjunctions of i and clears the ones that no longer hold
+    private void rescreen(int i) {
+        pairs.clear();
+        grid.neighboursOf(store, i, pairs);
+        double epoch = epochs[i];
+        String id = store.getId(i);
+        Set<String> previous = partners.getOrDefault(id, Collections.emptySet());
+        Set<String> current = new HashSet<>();
+        for (int k = 0; k < pairs.size(); k++) {
+            int j = pairs.first(k) == i ? pairs.second(k) : pairs.first(k);
+            if (!touches(i, j, epoch)) continue;
+            current.add(store.getId(j));
+            if (!previous.contains(store.getId(j))) report(pairs.first(k), pairs.second(k), epoch);
+        }
+        for (String other : previous) {
+            if (!current.contains(other)) forget(other, id);
+        }
+        if (current.isEmpty()) partners.remove(id);
+        else partners.put(id, current);
+    }
+
+    private void forget(String id, String partner) {
+        Set<String> set = partners.get(id);
+        set.remove(partner);
+        if (set.isEmpty()) partners.remove(id);
+    }
+
+    // True if i and j, both moved to epoch, touch within the horizon after it
+    private boolean touches(int i, int j, double epoch) {
+        double di = epoch - epochs[i], dj = epoch - epochs[j];
+        double contact = store.radius[i] + store.radius[j];
+        return ClosestApproach.missDistanceSquared(
+                store.x[i] + store.vx[i] * di - store.x[j] - store.vx[j] * dj,
+                store.y[i] + store.vy[i] * di - store.y[j] - store.vy[j] * dj,
+                store.z[i] + store.vz[i] * di - store.z[j] - store.vz[j] * dj,
+                store.vx[i] - store.vx[j], store.vy[i] - store.vy[j], store.vz[i] - store.vz[j],
+                horizon) <= contact * contact;
+    }
+
+    private void report(int i, int j, double epoch) {
+        String a = store.getId(i), b = store.getId(j);
+        partners.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+        partners.computeIfAbsent(b, k -> new HashSet<>()).add(a);
+        alerts++;
+        if (Metrics.ENABLED) Metrics.CONJUNCTIONS.add(1);
+        double di = epoch - epochs[i], dj = epoch - epochs[j];
+        listener.alert(a, b, epoch, ClosestApproach.compute(
+                store.x[i] + store.vx[i] * di - store.x[j] - store.vx[j] * dj,
+                store.y[i] + store.vy[i] * di - store.y[j] - store.vy[j] * dj,
+                store.z[i] + store.vz[i] * di - store.z[j] - store.vz[j] * dj,
+                store.vx[i] - store.vx[j], store.vy[i] - store.vy[j], store.vz[i] - store.vz[j], horizon));
+    }
+}
@@ -1,10 +1,205 @@
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class Main {
 
-    public static void main(String[] args) {
+    // Command line switches:
+    //   --brute-force       check every pair instead of using the grid
+    //   --compare           run both paths and report any mismatch
+    //   --threads=N         spread the sweep over N cores
+    //   --incremental       re-check a cached neighbour list, rebuilt only when objects move past the margin
+    //   --screen            filter pairs by altitude band, box and distance before the exact check; prints per-stage counts
+    //   --adaptive          jump between the steps where some pair could be in contact instead of checking every step;
+    //                       it runs its own single-threaded sweep, so the other sweep switches are rejected
+    //   --pc                estimate each conjunction's probability of collision by Monte Carlo at its closest step
+    //                       (batch mode, --threads workers); scored in the background while the sweep goes on
+    //   --sigma-pos=S       1-sigma position error per axis for --pc (default 0.1)
+    //   --sigma-vel=S       1-sigma velocity error per axis for --pc (default 0.001)
+    //   --margin=D          safety margin for --incremental (default: 4 steps of the fastest object)
+    //   --batch             report every conjunction over the horizon instead of stopping at the first one
+    //   --propagator=NAME   linear (default), kepler, rk4, rk4-j2, dp or dp-j2
+    //   --mu=MU             gravitational parameter for the orbital propagators (default Earth, km^3/s^2)
+    // Headless mode (no prompts, always batch):
+    //   --catalog=FILE      CSV with id,x,y,z,vx,vy,vz,radius per line
+    //   --load=FILE         binary snapshot written by --save, instead of --catalog
+    //   --steps=N           number of time steps (default 100)
+    //   --3d=true|false     ignore z and vz when false (default true)
+    //   --output=FILE       where conjunctions are written (default stdout)
+    //   --save=FILE         write a binary snapshot of the final state
+    //   --workers=N         split the horizon into time windows screened by N worker JVMs on this machine;
+    //                       they run the grid sweep, so the other sweep switches and --pc are rejected
+    //   --listen=PORT       with --workers, wait for workers started by hand (java ShardWorker HOST:PORT) instead
+    // Streaming mode (after loading --catalog or --load, if given):
+    //   --feed=SOURCE       apply state updates from a file, - for stdin or tcp:PORT, alerting as they arrive;
+    //                       lines are catalog rows with an optional epoch column (default: the newest epoch seen),
+    //                       and states more than the horizon older than the newest are rejected
+    //   --horizon=T         look-ahead for feed alerts, in time units (default 60)
+    // Run with -Dsatellite.metrics=true for timings and pair counts (see Metrics)
+    static class Options {
+        boolean bruteForce, compare, batch, incremental, screen, adaptive, pc;
+        int threads = 1;
+        int workers, listen;
+        double margin;
+        String catalog, snapshot, output, save, feed;
+        double horizon = 60;
+        double sigmaPos = 0.1, sigmaVel = 0.001;
+        int steps = 100;
+        boolean is3D = true;
+        String propagator = "linear";
+        double mu = Propagator.EARTH_MU;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String arg : args) {
+                if (arg.equals("--brute-force")) o.bruteForce = true;
+                else if (arg.equals("--compare")) o.compare = true;
+                else if (arg.equals("--batch")) o.batch = true;
+                else if (arg.equals("--incremental")) o.incremental = true;
+                else if (arg.equals("--screen")) o.screen = true;
+                else if (arg.equals("--adaptive")) o.adaptive = true;
+                else if (arg.equals("--pc")) o.pc = true;
+                else if (arg.startsWith("--sigma-pos=")) o.sigmaPos = Double.parseDouble(value(arg));
+                else if (arg.startsWith("--sigma-vel=")) o.sigmaVel = Double.parseDouble(value(arg));
+                else if (arg.startsWith("--margin=")) o.margin = Double.parseDouble(value(arg));
+                else if (arg.startsWith("--threads=")) o.threads = Integer.parseInt(value(arg));
+                else if (arg.startsWith("--catalog=")) o.catalog = value(arg);
+                else if (arg.startsWith("--steps=")) o.steps = Integer.parseInt(value(arg));
+                else if (arg.startsWith("--3d=")) o.is3D = Boolean.parseBoolean(value(arg));
+                else if (arg.startsWith("--output=")) o.output = value(arg);
+                else if (arg.startsWith("--load=")) o.snapshot = value(arg);
+                else if (arg.startsWith("--propagator=")) o.propagator = value(arg);
+                else if (arg.startsWith("--mu=")) o.mu = Double.parseDouble(value(arg));
+                else if (arg.startsWith("--save=")) o.save = value(arg);
+                else if (arg.startsWith("--workers=")) o.workers = Integer.parseInt(value(arg));
+                else if (arg.startsWith("--listen=")) o.listen = Integer.parseInt(value(arg));
+                else if (arg.startsWith("--feed=")) o.feed = value(arg);
+                else if (arg.startsWith("--horizon=")) o.horizon = Double.parseDouble(value(arg));
+                else throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            return o;
+        }
+
+        private static String value(String arg) {
+            return arg.substring(arg.indexOf('=') + 1);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        if (options.adaptive) checkAdaptiveOptions(options);
+        if (options.feed != null) {
+            runFeed(options);
+        } else if (options.catalog != null || options.snapshot != null) {
+            runHeadless(options);
+        } else {
+            runInteractive(options);
+        }
+    }
+
+    private static void runHeadless(Options options) throws IOException {
+        if (options.workers > 0) checkWorkerOptions(options);
+        options.batch = true;
+        long start = System.nanoTime();
+        SatelliteStore satellites = options.snapshot != null
+                ? Snapshot.map(new File(options.snapshot)).toStore()
+                : CatalogReader.read(new File(options.catalog), options.is3D);
+        System.err.printf("Loaded %d satellites in %.1f ms%n", satellites.size(), (System.nanoTime() - start) / 1e6);
+
+        if (options.output == null) {
+            PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16));
+            screen(satellites, options, out);
+            out.flush();
+        } else {
+            try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(options.output), 1 << 16))) {
+                screen(satellites, options, out);
+            }
+        }
+
+        // Workers propagate their own copies, so only a local run has a final state to save
+        if (options.save != null && options.workers > 0) {
+            System.err.println("--save is ignored with --workers");
+        } else if (options.save != null) Snapshot.write(satellites, new File(options.save));
+    }
+
+    // Workers run the plain grid sweep, so these switches would be dropped without a word
+    private static void checkWorkerOptions(Options options) {
+        List<String> unsupported = new ArrayList<>();
+        if (options.bruteForce) unsupported.add("--brute-force");
+        if (options.compare) unsupported.add("--compare");
+        if (options.incremental) unsupported.add("--incremental");
+        if (options.screen) unsupported.add("--screen");
+        if (options.adaptive) unsupported.add("--adaptive");
+        if (options.pc) unsupported.add("--pc");
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException(String.join(", ", unsupported) + " cannot be used with --workers");
+        }
+    }
+
+    // The adaptive stepper runs its own single-threaded sweep, so these
+    // switches would have no effect; --threads still sizes the --pc pool
+    private static void checkAdaptiveOptions(Options options) {
+        List<String> unsupported = new ArrayList<>();
+        if (options.threads > 1 && !options.pc) unsupported.add("--threads");
+        if (options.bruteForce) unsupported.add("--brute-force");
+        if (options.compare) unsupported.add("--compare");
+        if (options.incremental) unsupported.add("--incremental");
+        if (options.screen) unsupported.add("--screen");
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException(String.join(", ", unsupported) + " cannot be used with --adaptive");
+        }
+    }
+
+    private static void runFeed(Options options) throws IOException {
+        SatelliteStore satellites = options.snapshot != null ? Snapshot.map(new File(options.snapshot)).toStore()
+                : options.catalog != null ? CatalogReader.read(new File(options.catalog), options.is3D)
+                : new SatelliteStore();
+        PrintStream out = options.output == null ? System.out
+                : new PrintStream(new BufferedOutputStream(new FileOutputStream(options.output), 1 << 16));
+        // Updates may lag the newest one by up to the horizon
+        LiveScreen screen = new LiveScreen(satellites, options.horizon, options.horizon, (a, b, epoch, approach) ->
+                out.printf("Alert %s - %s: miss distance %.3f at time %.1f%n",
+                        a, b, approach.missDistance, epoch + approach.time));
+        out.flush();
+
+        try (BufferedReader in = openFeed(options.feed)) {
+            String line;
+            for (int lineNumber = 1; (line = in.readLine()) != null; lineNumber++) {
+                try {
+                    screen.apply(line);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Feed line " + lineNumber + " skipped: " + e.getMessage());
+                }
+                // Alerts go out as soon as the feed goes quiet, batched while it is busy
+                if (!in.ready()) out.flush();
+            }
+        }
+        out.flush();
+        if (out != System.out) out.close();
+        System.err.printf("Applied %d updates, %d alerts, %d satellites tracked%n",
+                screen.updates(), screen.alerts(), satellites.size());
+        if (Metrics.ENABLED) System.err.print(Metrics.dump());
+    }
+
+    // A file, - for stdin, or tcp:PORT to accept one feed connection
+    private static BufferedReader openFeed(String source) throws IOException {
+        if (source.equals("-")) return new BufferedReader(new InputStreamReader(System.in));
+        if (source.startsWith("tcp:")) {
+            try (ServerSocket server = new ServerSocket(Integer.parseInt(source.substring(4)))) {
+                System.err.println("Waiting for a feed on port " + server.getLocalPort());
+                Socket socket = server.accept();
+                return new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            }
+        }
+        return new BufferedReader(new FileReader(source), 1 << 16);
+    }
+
+    private static void runInteractive(Options options) throws IOException {
         Scanner scanner = new Scanner(System.in);
-        List<Satellite> satellites = new ArrayList<>();
+        SatelliteStore satellites = new SatelliteStore();
 
         System.out.print("Enter number of satellites: ");
         int n = scanner.nextInt();
@@ -28,39 +223,180 @@ public class Main {
             System.out.print("Radius: ");
             double radius = scanner.nextDouble();
 
-            satellites.add(new Satellite(id, x, y, z, vx, vy, vz, radius));
+            satellites.add(id, x, y, z, vx, vy, vz, radius);
         }
 
         System.out.print("Enter number of future time steps to simulate: ");
         int steps = scanner.nextInt();
 
+        simulate(satellites, steps, options, System.out);
+        if (options.save != null) Snapshot.write(satellites, new File(options.save));
+        scanner.close();
+    }
+
+    // Same reporting as the fixed loop in simulate, on the steps the stepper visits
+    private static boolean stepAdaptively(SatelliteStore satellites, Propagator propagator, int steps,
+                                          Options options, ConjunctionTracker tracker, PrintStream out) {
+        AdaptiveStepper stepper = new AdaptiveStepper(satellites, propagator, options.mu, steps);
+        PairList collisions = new PairList();
+        while (stepper.next(collisions)) {
+            if (options.batch) {
+                tracker.record(stepper.step(), collisions, 1);
+            } else if (!collisions.isEmpty()) {
+                out.println("Collision predicted between " +
+                        satellites.getId(collisions.first(0)) + " and " + satellites.getId(collisions.second(0)) +
+                        " at time step " + stepper.step());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void screen(SatelliteStore satellites, Options options, PrintStream out) throws IOException {
+        if (options.workers <= 0) {
+            simulate(satellites, options.steps, options, out);
+            return;
+        }
+        // Workers load the catalog from a snapshot, so a CSV catalog is converted first
+        File snapshot;
+        if (options.snapshot != null) {
+            snapshot = new File(options.snapshot);
+        } else {
+            snapshot = File.createTempFile("catalog", ".sat");
+            snapshot.deleteOnExit();
+            Snapshot.write(satellites, snapshot);
+        }
+        new ShardCoordinator(satellites, snapshot, options).run(out);
+    }
+
+    static void simulate(SatelliteStore satellites, int steps, Options options, PrintStream out) {
+        ParallelSweep parallel = options.threads > 1 ? new ParallelSweep(options.threads) : null;
+        Propagator propagator = Propagator.forName(options.propagator, options.mu);
+        boolean linear = propagator instanceof LinearPropagator;
         boolean collisionDetected = false;
+        // Each step is checked over its whole interval, so fast objects cannot
+        // pass through each other between samples
+        SpatialHash grid = SpatialHash.forStore(satellites, 1);
+        NeighbourList neighbours = options.incremental ? new NeighbourList(options.margin) : null;
+        ConjunctionScreen screen = options.screen ? new ConjunctionScreen() : null;
+        PairList collisions = new PairList();
+        PairList reference = new PairList();
+        ConjunctionTracker tracker;
+        CollisionProbability probability = null;
+        Deque<ConjunctionEvent> scoredEvents = new ArrayDeque<>();
+        Deque<Future<CollisionProbability.Result>> scores = new ArrayDeque<>();
+        if (options.pc) {
+            // The pair is copied at each new closest step, the one holding the
+            // time of closest approach, and scored from that copy once the event
+            // ends. Scoring runs in the background while the sweep carries on;
+            // events are printed in order as their scores come in.
+            probability = new CollisionProbability(options.propagator, options.mu, options.threads, 1);
+            CollisionProbability pc = probability;
+            Map<Long, SatelliteStore> closest = new HashMap<>();
+            tracker = new ConjunctionTracker(satellites, event -> {
+                SatelliteStore pair = closest.remove(((long) event.first << 32) | event.second);
+                scoredEvents.add(event);
+                scores.add(pc.submit(pair, 0, 1, options.sigmaPos, options.sigmaVel, options.sigmaPos, options.sigmaVel));
+                printScored(scoredEvents, scores, false, out);
+            });
+            tracker.setClosestListener((i, j, step) -> closest.put(((long) i << 32) | j, copyPair(satellites, i, j)));
+        } else {
+            tracker = new ConjunctionTracker(satellites, out::println);
+        }
 
-        for (int t = 1; t <= steps; t++) {
-            // Move satellites
-            for (Satellite s : satellites) s.move();
-
-            // Check for first collision
-            outerLoop:
-            for (int i = 0; i < satellites.size(); i++) {
-                for (int j = i + 1; j < satellites.size(); j++) {
-                    if (satellites.get(i).isColliding(satellites.get(j), is3D)) {
-                        System.out.println("Collision predicted between " +
-                                satellites.get(i).getId() + " and " + satellites.get(j).getId() +
-                                " at time step " + t);
-                        collisionDetected = true;
-                        break outerLoop;
-                    }
+        // The adaptive stepper picks its own steps; the fixed loop below then has none left
+        if (options.adaptive) collisionDetected = stepAdaptively(satellites, propagator, steps, options, tracker, out);
+        int fixedSteps = options.adaptive ? 0 : steps;
+
+        for (int t = 1; t <= fixedSteps; t++) {
+            // Orbital speeds change every step, so the cells have to follow
+            if (!linear) grid.resize(satellites, 1);
+
+            long sweepStart = Metrics.ENABLED ? System.nanoTime() : 0;
+            if (screen != null) {
+                screen.findCollisionsWithin(satellites, 1, collisions);
+            } else if (neighbours != null) {
+                neighbours.findCollisionsWithin(satellites, 1, collisions);
+            } else if (parallel != null) {
+                if (options.bruteForce) parallel.bruteForceCollisions(satellites, 1, collisions);
+                else parallel.findCollisionsWithin(satellites, grid, 1, collisions);
+            } else if (options.bruteForce) {
+                satellites.bruteForceCollisions(1, collisions);
+            } else {
+                grid.findCollisionsWithin(satellites, 1, collisions);
+            }
+            if (Metrics.ENABLED) {
+                Metrics.SWEEP_NANOS.record(System.nanoTime() - sweepStart);
+                Metrics.CONJUNCTIONS.add(collisions.size());
+            }
+
+            if (options.compare) {
+                satellites.bruteForceCollisions(1, reference);
+                if (!collisions.sameAs(reference)) {
+                    out.println("Broad phase and brute force disagree at time step " + t);
                 }
             }
 
-            if (collisionDetected) break;
+            if (options.batch) tracker.record(t, collisions, 1);
+
+            // Move satellites
+            long propagateStart = Metrics.ENABLED ? System.nanoTime() : 0;
+            satellites.propagate(propagator, 1);
+            if (Metrics.ENABLED) Metrics.PROPAGATION_NANOS.record(System.nanoTime() - propagateStart);
+
+            // Report the first collision
+            if (!options.batch && !collisions.isEmpty()) {
+                out.println("Collision predicted between " +
+                        satellites.getId(collisions.first(0)) + " and " + satellites.getId(collisions.second(0)) +
+                        " at time step " + t);
+                collisionDetected = true;
+                break;
+            }
+        }
+
+        if (options.batch) {
+            tracker.flush();
+            printScored(scoredEvents, scores, true, out);
+            collisionDetected = tracker.emittedEvents() > 0;
+            if (collisionDetected) {
+                out.println(tracker.emittedEvents() + " conjunctions in " + steps + " time steps.");
+            }
         }
 
         if (!collisionDetected) {
-            System.out.println("No collision predicted in " + steps + " time steps.");
+            out.println("No collision predicted in " + steps + " time steps.");
         }
 
-        scanner.close();
+        if (screen != null) System.err.println(screen.counts());
+        if (Metrics.ENABLED) System.err.print(Metrics.dump());
+        if (parallel != null) parallel.close();
+        if (probability != null) probability.close();
+    }
+
+    // Satellites i and j of store, copied into a store of their own as 0 and 1
+    private static SatelliteStore copyPair(SatelliteStore store, int i, int j) {
+        SatelliteStore pair = new SatelliteStore(2);
+        for (int k : new int[]{i, j}) {
+            pair.add(store.getId(k), store.getX(k), store.getY(k), store.getZ(k),
+                    store.getVx(k), store.getVy(k), store.getVz(k), store.getRadius(k));
+        }
+        return pair;
+    }
+
+    // Prints scored events in order, up to the first whose score is not in
+    // yet, or every one of them when wait is set
+    private static void printScored(Deque<ConjunctionEvent> events, Deque<Future<CollisionProbability.Result>> scores,
+                                    boolean wait, PrintStream out) {
+        while (!scores.isEmpty() && (wait || scores.peek().isDone())) {
+            out.println(events.poll());
+            try {
+                out.println("  " + scores.poll().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a Pc estimate", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Pc estimate failed", e.getCause());
+            }
+        }
     }
 }
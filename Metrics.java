@@ -0,0 +1,185 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Counters and latency histograms for the hot loops, off unless the JVM is
+// started with -Dsatellite.metrics=true. ENABLED is a static final, so with
+// metrics off the JIT folds every `if (Metrics.ENABLED)` guard away.
+// When on, every metric is registered with JMX under satellite:type=Metrics
+// and all of them are printed to stderr every -Dsatellite.metrics.interval
+// seconds (default 10, 0 for never).
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("satellite.metrics");
+
+    private static final List<Object> ALL = new ArrayList<>();
+
+    public static final Histogram PROPAGATION_NANOS = new Histogram("propagationNanos");
+    public static final Histogram SWEEP_NANOS = new Histogram("sweepNanos");
+    public static final Histogram PREDICTION_NANOS = new Histogram("predictionNanos");
+    public static final Histogram FRAME_NANOS = new Histogram("frameNanos");
+    public static final Histogram LOG_QUEUE_DEPTH = new Histogram("logQueueDepth");
+    public static final Histogram UPDATE_NANOS = new Histogram("updateNanos");
+    public static final Counter BROAD_PHASE_PAIRS = new Counter("broadPhasePairs");
+    public static final Counter PAIRS_TESTED = new Counter("pairsTested");
+    public static final Counter CONJUNCTIONS = new Counter("conjunctions");
+
+    static {
+        if (ENABLED) start();
+    }
+
+    private Metrics() {
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public interface HistogramMXBean {
+        long getCount();
+        double getMean();
+        long getP50();
+        long getP90();
+        long getP99();
+        long getMax();
+    }
+
+    // Striped counter; cheap to bump from many threads at once
+    public static final class Counter implements CounterMXBean {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+            ALL.add(this);
+        }
+
+        public void add(long n) { count.add(n); }
+
+        @Override
+        public long getCount() { return count.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format("%-18s %d", name, getCount());
+        }
+    }
+
+    // HDR-style histogram: log-linear buckets, 16 per power of two, so any
+    // recorded value is reported within about 6% with a fixed 8 KB footprint
+    public static final class Histogram implements HistogramMXBean {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BITS + 1) * SUB_COUNT);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(String name) {
+            this.name = name;
+            ALL.add(this);
+        }
+
+        public void record(long value) {
+            if (value < 0) value = 0;
+            buckets.incrementAndGet(bucket(value));
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        @Override
+        public long getCount() { return count.sum(); }
+
+        @Override
+        public double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        @Override
+        public long getP50() { return percentile(0.50); }
+
+        @Override
+        public long getP90() { return percentile(0.90); }
+
+        @Override
+        public long getP99() { return percentile(0.99); }
+
+        @Override
+        public long getMax() { return max.get(); }
+
+        // Upper edge of the bucket holding the q-th value, capped at the true max
+        public long percentile(double q) {
+            long n = count.sum();
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(q * n), seen = 0;
+            for (int b = 0; b < buckets.length(); b++) {
+                seen += buckets.get(b);
+                if (seen >= rank) return Math.min(upperEdge(b), max.get());
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-18s count=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                    name, getCount(), getMean(), getP50(), getP90(), getP99(), getMax());
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_COUNT) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+            return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+
+        private static long upperEdge(int bucket) {
+            if (bucket < SUB_COUNT) return bucket;
+            int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+            long sub = bucket % SUB_COUNT;
+            long low = (SUB_COUNT + sub) << (exponent - SUB_BITS);
+            return low + (1L << (exponent - SUB_BITS)) - 1;
+        }
+    }
+
+    // Every metric, one per line
+    public static String dump() {
+        StringBuilder text = new StringBuilder("Metrics:\n");
+        for (Object metric : ALL) text.append("  ").append(metric).append('\n');
+        return text.toString();
+    }
+
+    private static void start() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Object metric : ALL) {
+                String name = metric instanceof Counter ? ((Counter) metric).name : ((Histogram) metric).name;
+                server.registerMBean(metric, new ObjectName("satellite:type=Metrics,name=" + name));
+            }
+        } catch (JMException e) {
+            System.err.println("Metrics not registered with JMX: " + e.getMessage());
+        }
+
+        long interval = Long.getLong("satellite.metrics.interval", 10);
+        if (interval > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.print(dump()), interval, interval, TimeUnit.SECONDS);
+        }
+    }
+}
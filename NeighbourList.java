@@ -0,0 +1,84 @@
+// Incremental broad phase (a Verlet list). Candidate pairs are collected
+// once with a safety margin on top of the collision reach; while no object
+// has moved far enough to eat that margin, each step only re-checks the
+// cached pairs instead of sweeping the whole catalog again.
+public class NeighbourList {
+
+    // Default margin lets the fastest object move this many steps before a rebuild
+    static final int DEFAULT_STEPS = 4;
+
+    private final double margin;
+    private final SpatialHash grid = new SpatialHash(1);
+    private final PairList scratch = new PairList();
+    private final PairList candidates = new PairList();
+
+    // Positions at the last rebuild, and the pair distance the list covers
+    private double[] x0 = new double[0], y0 = new double[0], z0 = new double[0];
+    private int builtSize = -1, builtVersion;
+    private double listRadius;
+    private long rebuilds;
+
+    // margin <= 0 picks one from the catalog's speeds at the first rebuild
+    public NeighbourList(double margin) {
+        this.margin = margin;
+    }
+
+    // Pairs that touch at any time in [0, dt], sorted like the other sweeps.
+    // Adding or removing satellites between calls forces a rebuild.
+    public void findCollisionsWithin(SatelliteStore store, double dt, PairList out) {
+        double reach = 2 * store.maxRadius() + 2 * store.maxSpeed() * dt;
+        if (store.size() != builtSize || store.layoutVersion() != builtVersion || reach + 2 * maxDisplacement(store) > listRadius) {
+            rebuild(store, dt, reach);
+        }
+        out.clear();
+        for (int k = 0; k < candidates.size(); k++) {
+            int i = candidates.first(k), j = candidates.second(k);
+            if (store.isCollidingWithin(i, j, dt)) out.add(i, j);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.BROAD_PHASE_PAIRS.add(candidates.size());
+            Metrics.PAIRS_TESTED.add(candidates.size());
+        }
+    }
+
+    public int candidateCount() { return candidates.size(); }
+
+    public long rebuilds() { return rebuilds; }
+
+    // A pair can only have closed in by the sum of both displacements, so
+    // the list stays a superset while reach + 2 * max displacement fits in it
+    private double maxDisplacement(SatelliteStore store) {
+        double max = 0;
+        for (int i = 0; i < builtSize; i++) {
+            double dx = store.x[i] - x0[i], dy = store.y[i] - y0[i], dz = store.z[i] - z0[i];
+            max = Math.max(max, dx * dx + dy * dy + dz * dz);
+        }
+        return Math.sqrt(max);
+    }
+
+    private void rebuild(SatelliteStore store, double dt, double reach) {
+        int n = store.size();
+        double skin = margin > 0 ? margin : 2 * store.maxSpeed() * dt * DEFAULT_STEPS;
+        listRadius = reach + skin;
+        grid.setCellSize(listRadius);
+        grid.candidatePairs(store, scratch);
+
+        candidates.clear();
+        double limit = listRadius * listRadius;
+        for (int k = 0; k < scratch.size(); k++) {
+            int i = scratch.first(k), j = scratch.second(k);
+            double dx = store.x[i] - store.x[j], dy = store.y[i] - store.y[j], dz = store.z[i] - store.z[j];
+            if (dx * dx + dy * dy + dz * dz <= limit) candidates.add(i, j);
+        }
+
+        if (x0.length < n) {
+            x0 = new double[n]; y0 = new double[n]; z0 = new double[n];
+        }
+        System.arraycopy(store.x, 0, x0, 0, n);
+        System.arraycopy(store.y, 0, y0, 0, n);
+        System.arraycopy(store.z, 0, z0, 0, n);
+        builtSize = n;
+        builtVersion = store.layoutVersion();
+        rebuilds++;
+    }
+}
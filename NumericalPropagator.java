@@ -0,0 +1,164 @@
+import java.util.Arrays;
+
+// Numerical integration of point-mass gravity with an optional J2 (Earth
+// oblateness) term. RK4 uses fixed sub-steps no longer than maxStep;
+// Dormand-Prince 5(4) adapts its step per satellite to meet the tolerance.
+// Scratch buffers are reused, so an instance must not be shared between threads.
+public class NumericalPropagator implements Propagator {
+
+    public enum Integrator { RK4, DORMAND_PRINCE }
+
+    // Dormand-Prince 5(4) tableau
+    private static final double[][] A = {
+            {},
+            {1.0 / 5},
+            {3.0 / 40, 9.0 / 40},
+            {44.0 / 45, -56.0 / 15, 32.0 / 9},
+            {19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729},
+            {9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656},
+            {35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84}
+    };
+    private static final double[] B5 = {35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84, 0};
+    private static final double[] B4 = {5179.0 / 57600, 0, 7571.0 / 16695, 393.0 / 640,
+            -92097.0 / 339200, 187.0 / 2100, 1.0 / 40};
+    // Dormand-Prince gives up below this fraction of maxStep, or after this many tries per call
+    private static final double MIN_STEP_FRACTION = 1e-9;
+    private static final int MAX_ATTEMPTS = 1_000_000;
+
+    private final double mu;
+    private final boolean j2;
+    private final Integrator integrator;
+    private double maxStep = 10;
+    private double relativeTolerance = 1e-10;
+    private double absoluteTolerance = 1e-6;
+    private double bodyRadius = EARTH_RADIUS;
+    private double j2Coefficient = EARTH_J2;
+
+    private final double[] state = new double[6];
+    private final double[] stage = new double[6];
+    private final double[][] k = new double[7][6];
+
+    public NumericalPropagator(double mu, boolean j2, Integrator integrator) {
+        this.mu = mu;
+        this.j2 = j2;
+        this.integrator = integrator;
+    }
+
+    // Longest RK4 sub-step, and the first step Dormand-Prince tries
+    public NumericalPropagator setMaxStep(double maxStep) {
+        this.maxStep = maxStep;
+        return this;
+    }
+
+    public NumericalPropagator setTolerance(double relative, double absolute) {
+        this.relativeTolerance = relative;
+        this.absoluteTolerance = absolute;
+        return this;
+    }
+
+    // Central body used for the J2 term (Earth by default)
+    public NumericalPropagator setBody(double radius, double j2Coefficient) {
+        this.bodyRadius = radius;
+        this.j2Coefficient = j2Coefficient;
+        return this;
+    }
+
+    @Override
+    public void propagate(double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz,
+                          int from, int to, double dt) {
+        for (int i = from; i < to; i++) {
+            state[0] = x[i]; state[1] = y[i]; state[2] = z[i];
+            state[3] = vx[i]; state[4] = vy[i]; state[5] = vz[i];
+            if (integrator == Integrator.RK4) integrateRk4(dt);
+            else integrateDormandPrince(dt);
+            x[i] = state[0]; y[i] = state[1]; z[i] = state[2];
+            vx[i] = state[3]; vy[i] = state[4]; vz[i] = state[5];
+        }
+    }
+
+    private void integrateRk4(double dt) {
+        int steps = Math.max(1, (int) Math.ceil(Math.abs(dt) / maxStep));
+        double h = dt / steps;
+        for (int s = 0; s < steps; s++) {
+            derivative(state, k[0]);
+            stage(h / 2, k[0]);
+            derivative(stage, k[1]);
+            stage(h / 2, k[1]);
+            derivative(stage, k[2]);
+            stage(h, k[2]);
+            derivative(stage, k[3]);
+            for (int c = 0; c < 6; c++) {
+                state[c] += h / 6 * (k[0][c] + 2 * k[1][c] + 2 * k[2][c] + k[3][c]);
+            }
+        }
+    }
+
+    private void integrateDormandPrince(double dt) {
+        double remaining = dt;
+        double direction = Math.signum(dt);
+        double h = Math.min(maxStep, Math.abs(dt)) * direction;
+        double minStep = maxStep * MIN_STEP_FRACTION;
+        int attempts = 0;
+        derivative(state, k[0]);
+        while (remaining * direction > 0) {
+            if (++attempts > MAX_ATTEMPTS) fail("no convergence after " + MAX_ATTEMPTS + " steps");
+            if (Math.abs(h) > Math.abs(remaining)) h = remaining;
+            for (int s = 1; s < 7; s++) {
+                for (int c = 0; c < 6; c++) {
+                    double sum = 0;
+                    for (int j = 0; j < s; j++) sum += A[s][j] * k[j][c];
+                    stage[c] = state[c] + h * sum;
+                }
+                derivative(stage, k[s]);
+            }
+            // stage now holds the 5th-order solution (B5 equals the last row of A)
+            double errorNorm = 0;
+            for (int c = 0; c < 6; c++) {
+                double e = 0;
+                for (int s = 0; s < 7; s++) e += (B5[s] - B4[s]) * k[s][c];
+                e *= h;
+                double scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(state[c]), Math.abs(stage[c]));
+                errorNorm += (e / scale) * (e / scale);
+            }
+            errorNorm = Math.sqrt(errorNorm / 6);
+            // A NaN error would turn h into NaN and the loop would never end
+            if (!Double.isFinite(errorNorm)) fail("non-finite error estimate at step " + h);
+
+            if (errorNorm <= 1) {
+                System.arraycopy(stage, 0, state, 0, 6);
+                System.arraycopy(k[6], 0, k[0], 0, 6); // first-same-as-last
+                remaining -= h;
+            } else if (Math.abs(h) <= minStep) {
+                fail("step " + h + " below the minimum " + minStep + " and tolerance still not met");
+            }
+            double factor = errorNorm == 0 ? 5 : 0.9 * Math.pow(errorNorm, -0.2);
+            h *= Math.min(5, Math.max(0.2, factor));
+        }
+    }
+
+    private void fail(String reason) {
+        throw new ArithmeticException("Dormand-Prince failed at state " + Arrays.toString(state) + ": " + reason);
+    }
+
+    private void stage(double h, double[] slope) {
+        for (int c = 0; c < 6; c++) stage[c] = state[c] + h * slope[c];
+    }
+
+    // d/dt of (position, velocity)
+    private void derivative(double[] s, double[] out) {
+        double rx = s[0], ry = s[1], rz = s[2];
+        double r2 = rx * rx + ry * ry + rz * rz;
+        double r = Math.sqrt(r2);
+        double g = -mu / (r2 * r);
+        double ax = g * rx, ay = g * ry, az = g * rz;
+        if (j2) {
+            double zr2 = rz * rz / r2;
+            double factor = -1.5 * j2Coefficient * mu * bodyRadius * bodyRadius / (r2 * r2 * r);
+            ax += factor * rx * (1 - 5 * zr2);
+            ay += factor * ry * (1 - 5 * zr2);
+            az += factor * rz * (3 - 5 * zr2);
+        }
+        out[0] = s[3]; out[1] = s[4]; out[2] = s[5];
+        out[3] = ax; out[4] = ay; out[5] = az;
+    }
+}
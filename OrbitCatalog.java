@@ -0,0 +1,62 @@
+import java.util.Random;
+
+// Seeded synthetic orbits for checks and benchmarks: random elliptical,
+// inclined element sets, and Earth two-body states built from them.
+public class OrbitCatalog {
+
+    private OrbitCatalog() {
+    }
+
+    // Seeded elliptical, inclined orbits (a, e, i, node, argument of perigee, mean anomaly)
+    public static double[][] randomElements(int n, long seed) {
+        Random random = new Random(seed);
+        double[][] elements = new double[n][];
+        for (int i = 0; i < n; i++) {
+            double a = 6800 + random.nextDouble() * 20_000;
+            double e = random.nextDouble() * 0.3;
+            if (a * (1 - e) < 6600) a = 6600 / (1 - e); // keep perigee clear of the surface
+            elements[i] = new double[]{a, e, random.nextDouble() * Math.PI,
+                    random.nextDouble() * 2 * Math.PI, random.nextDouble() * 2 * Math.PI,
+                    random.nextDouble() * 2 * Math.PI};
+        }
+        return elements;
+    }
+
+    // One satellite per element set, ids ORBIT-0, ORBIT-1, ...
+    public static SatelliteStore catalog(double[][] elements, double radius) {
+        SatelliteStore store = new SatelliteStore(elements.length);
+        double[] s = new double[6];
+        for (int i = 0; i < elements.length; i++) {
+            double[] el = elements[i];
+            stateFromElements(el[0], el[1], el[2], el[3], el[4], el[5], s);
+            store.add("ORBIT-" + i, s[0], s[1], s[2], s[3], s[4], s[5], radius);
+        }
+        return store;
+    }
+
+    // Position and velocity from classical elements (a, e, i, node, argument of perigee, mean anomaly)
+    public static void stateFromElements(double a, double e, double inc, double raan, double argp, double meanAnomaly,
+                                         double[] out) {
+        double eccentricAnomaly = meanAnomaly;
+        for (int k = 0; k < 50; k++) {
+            double delta = (eccentricAnomaly - e * Math.sin(eccentricAnomaly) - meanAnomaly)
+                    / (1 - e * Math.cos(eccentricAnomaly));
+            eccentricAnomaly -= delta;
+            if (Math.abs(delta) < 1e-15) break;
+        }
+        double cosE = Math.cos(eccentricAnomaly), sinE = Math.sin(eccentricAnomaly);
+        double b = a * Math.sqrt(1 - e * e);
+        double px = a * (cosE - e), py = b * sinE;
+        double rate = Math.sqrt(Propagator.EARTH_MU / (a * a * a)) / (1 - e * cosE);
+        double pvx = -a * sinE * rate, pvy = b * cosE * rate;
+
+        double cO = Math.cos(raan), sO = Math.sin(raan);
+        double cw = Math.cos(argp), sw = Math.sin(argp);
+        double ci = Math.cos(inc), si = Math.sin(inc);
+        double r11 = cO * cw - sO * sw * ci, r12 = -cO * sw - sO * cw * ci;
+        double r21 = sO * cw + cO * sw * ci, r22 = -sO * sw + cO * cw * ci;
+        double r31 = sw * si, r32 = cw * si;
+        out[0] = r11 * px + r12 * py; out[1] = r21 * px + r22 * py; out[2] = r31 * px + r32 * py;
+        out[3] = r11 * pvx + r12 * pvy; out[4] = r21 * pvx + r22 * pvy; out[5] = r31 * pvx + r32 * pvy;
+    }
+}
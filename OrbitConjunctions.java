@@ -0,0 +1,65 @@
+// Closed-form conjunction windows for two coplanar circular orbits around
+// the same centre. Separation only depends on the phase difference
+// phi(t) = theta1 - theta2 + (w1 - w2) * t, so the times the pair is within
+// contact distance form a periodic sequence of windows that can be solved
+// directly instead of stepping through the horizon.
+public class OrbitConjunctions {
+    public final double firstStart; // in the same time unit as the angular velocities
+    public final double duration;
+    public final double period;     // Double.POSITIVE_INFINITY if the windows never repeat
+    public final long count;        // windows that start inside the horizon
+
+    private OrbitConjunctions(double firstStart, double duration, double period, long count) {
+        this.firstStart = firstStart;
+        this.duration = duration;
+        this.period = period;
+        this.count = count;
+    }
+
+    public double start(long k) { return firstStart + k * period; }
+
+    public double end(long k) { return start(k) + duration; }
+
+    // Returns null when the pair never comes within radius1 + radius2 before the horizon
+    public static OrbitConjunctions predict(double orbitRadius1, double theta1, double w1, double radius1,
+                                            double orbitRadius2, double theta2, double w2, double radius2,
+                                            double horizon) {
+        double contact = radius1 + radius2;
+        // Orbits too far apart ever to touch
+        if (Math.abs(orbitRadius1 - orbitRadius2) >= contact) return null;
+
+        // distance^2 = r1^2 + r2^2 - 2 r1 r2 cos(phi) < contact^2  <=>  cos(phi) > c
+        double c = (orbitRadius1 * orbitRadius1 + orbitRadius2 * orbitRadius2 - contact * contact)
+                / (2 * orbitRadius1 * orbitRadius2);
+        if (c < -1 || Double.isNaN(c)) {
+            // In contact at every phase
+            return new OrbitConjunctions(0, horizon, Double.POSITIVE_INFINITY, 1);
+        }
+        double alpha = Math.acos(c);
+
+        double phi0 = theta1 - theta2;
+        double rate = w1 - w2;
+        if (rate < 0) {
+            // cos is even, so run the phase the other way round
+            phi0 = -phi0;
+            rate = -rate;
+        }
+        phi0 = phi0 - 2 * Math.PI * Math.floor(phi0 / (2 * Math.PI));
+
+        if (rate == 0) {
+            boolean inside = phi0 < alpha || phi0 > 2 * Math.PI - alpha;
+            return inside ? new OrbitConjunctions(0, horizon, Double.POSITIVE_INFINITY, 1) : null;
+        }
+
+        // Window k spans phi in (2 pi k - alpha, 2 pi k + alpha); the first one
+        // still open at t = 0 is k = 0 when phi0 is inside alpha, otherwise k = 1
+        double period = 2 * Math.PI / rate;
+        long k0 = phi0 < alpha ? 0 : 1;
+        double start = (2 * Math.PI * k0 - alpha - phi0) / rate;
+        double duration = 2 * alpha / rate;
+        if (start >= horizon) return null;
+
+        long count = (long) Math.ceil((horizon - start) / period);
+        return new OrbitConjunctions(start, duration, period, count);
+    }
+}
@@ -5,23 +5,40 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
 import javafx.scene.shape.Sphere;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.animation.AnimationTimer;
 import javafx.scene.transform.Rotate;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class OrbitingSat extends Application {
+public class OrbitingSat extends Application implements SimulationLoop.Model {
 
+    // Owned by the simulation thread; the FX thread only touches the view and log
     private List<Satellite> satellites = new ArrayList<>();
-    private Group satelliteGroup = new Group();
+    private ConstellationView constellation = new ConstellationView(SCALE);
     private TextArea log = new TextArea();
+    private SimulationLoop loop = new SimulationLoop(this);
+    private CollisionLog collisionLog = CollisionLog.open(LOG_LINES);
+
+    // Simulation thread: positions mirrored into columns every tick, so the
+    // exact test only runs on the pairs the neighbour list finds close
+    private SatelliteStore positions = SatelliteStore.blank(0);
+    private final NeighbourList neighbours = new NeighbourList(0);
+    private final PairList contacts = new PairList();
 
     private static final double EARTH_RADIUS = 50;
     private static final double SCALE = 2.0;
+    private static final int TICKS_PER_SECOND = 60;
+    private static final int LOG_LINES = 200;
 
     public static void main(String[] args) {
+        // --software renders without GPU acceleration
+        if (Arrays.asList(args).contains("--software")) System.setProperty("prism.order", "sw");
         launch(args);
     }
 
@@ -34,7 +51,7 @@ public class OrbitingSat extends Application {
         PhongMaterial earthMat = new PhongMaterial(Color.BLUE);
         earth.setMaterial(earthMat);
 
-        Group world = new Group(earth, satelliteGroup);
+        Group world = new Group(earth, constellation.getNode());
         world.getTransforms().addAll(new Rotate(-20, Rotate.X_AXIS),
                 new Rotate(-30, Rotate.Y_AXIS));
 
@@ -55,8 +72,9 @@ public class OrbitingSat extends Application {
 
         TextField idField = new TextField("Sat-1");
         TextField orbitRadiusField = new TextField("150");  // orbit radius from Earth
-        TextField angularVelocityField = new TextField("0.05"); // radians per frame
+        TextField angularVelocityField = new TextField("0.05"); // radians per tick
         TextField radiusField = new TextField("10");        // satellite size
+        TextField horizonField = new TextField("360");      // prediction horizon in ticks
 
         Button addBtn = new Button("Add Satellite");
         Button predictBtn = new Button("Predict Collisions");
@@ -68,26 +86,30 @@ public class OrbitingSat extends Application {
             double radius = Double.parseDouble(radiusField.getText());
 
             Satellite sat = new Satellite(id, orbitRadius, angularVelocity, radius);
-            satellites.add(sat);
+            constellation.add(radius);
+            loop.execute(() -> satellites.add(sat));
 
-            Sphere satSphere = new Sphere(radius * SCALE / 5);
-            PhongMaterial mat = new PhongMaterial(Color.RED);
-            satSphere.setMaterial(mat);
-            sat.setSphere(satSphere);
-            satelliteGroup.getChildren().add(satSphere);
+            collisionLog.post("Added " + id + " in orbit radius " + orbitRadius + "\n");
+        });
 
-            log.appendText("Added " + id + " in orbit radius " + orbitRadius + "\n");
+        predictBtn.setOnAction(e -> {
+            int steps = Integer.parseInt(horizonField.getText());
+            loop.execute(() -> predictFuturePositions(steps));
         });
 
-        predictBtn.setOnAction(e -> predictFuturePositions(360)); // simulate 360 steps
+        Button saveBtn = new Button("Save Snapshot");
+        Button loadBtn = new Button("Load Snapshot");
+        saveBtn.setOnAction(e -> saveSnapshot(stage));
+        loadBtn.setOnAction(e -> loadSnapshot(stage));
 
         log.setPrefHeight(150);
         controls.getChildren().addAll(
                 new Label("ID:"), idField,
                 new Label("Orbit Radius:"), orbitRadiusField,
-                new Label("Angular Velocity (rad/frame):"), angularVelocityField,
+                new Label("Angular Velocity (rad/tick):"), angularVelocityField,
                 new Label("Radius:"), radiusField,
-                addBtn, predictBtn, log
+                new Label("Prediction Horizon (ticks):"), horizonField,
+                addBtn, predictBtn, saveBtn, loadBtn, log
         );
 
         root.setCenter(subScene);
@@ -98,93 +120,235 @@ public class OrbitingSat extends Application {
         stage.setTitle("3D Satellite Orbit Simulator");
         stage.show();
 
-        // Animation loop
+        // Render loop: only reads the latest published frame
         AnimationTimer timer = new AnimationTimer() {
+            private long lastFrame;
+
             @Override
             public void handle(long now) {
-                for (Satellite s : satellites) {
-                    s.updatePosition();
-                }
-                checkCollisions();
+                if (Metrics.ENABLED && lastFrame != 0) Metrics.FRAME_NANOS.record(now - lastFrame);
+                lastFrame = now;
+                constellation.render(loop.latestFrame());
+                String text = collisionLog.textIfDue(now);
+                if (text != null) showLog(text);
             }
         };
         timer.start();
+        loop.setErrorHandler(collisionLog::post);
+        loop.start(TICKS_PER_SECOND);
+    }
+
+    @Override
+    public void stop() {
+        loop.stop();
+        collisionLog.close();
+    }
+
+    // FX thread: the log view shows the recent lines only, scrolled to the end
+    private void showLog(String text) {
+        log.setText(text);
+        log.positionCaret(text.length());
+    }
+
+    // Simulation thread
+    @Override
+    public void tick() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        for (Satellite s : satellites) {
+            s.updatePosition();
+        }
+        if (Metrics.ENABLED) Metrics.PROPAGATION_NANOS.record(System.nanoTime() - start);
+        checkCollisions();
+    }
+
+    // Simulation thread
+    @Override
+    public PositionFrame capture(long tick) {
+        int n = satellites.size();
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        for (int i = 0; i < n; i++) {
+            Satellite s = satellites.get(i);
+            x[i] = s.x;
+            z[i] = s.z;
+        }
+        return new PositionFrame(tick, x, y, z);
+    }
+
+    // Snapshots hold Cartesian state vectors, so each orbit is stored as its
+    // current position and velocity (per tick) in the y = 0 plane
+    private void saveSnapshot(Stage stage) {
+        File file = snapshotChooser().showSaveDialog(stage);
+        if (file == null) return;
+        loop.execute(() -> {
+            SatelliteStore store = new SatelliteStore(satellites.size());
+            for (Satellite s : satellites) {
+                store.add(s.id, s.x, 0, s.z, -s.angularVelocity * s.z, 0, s.angularVelocity * s.x, s.radius);
+            }
+            try {
+                Snapshot.write(store, file);
+                collisionLog.post("Saved " + store.size() + " satellites to " + file.getName() + "\n");
+            } catch (IOException | IllegalArgumentException ex) {
+                collisionLog.post("Could not save snapshot: " + ex.getMessage() + "\n");
+            }
+        });
+    }
+
+    private void loadSnapshot(Stage stage) {
+        File file = snapshotChooser().showOpenDialog(stage);
+        if (file == null) return;
+        List<Satellite> loaded = new ArrayList<>();
+        try {
+            Snapshot snapshot = Snapshot.map(file);
+            for (int i = 0; i < snapshot.size(); i++) {
+                double x = snapshot.getX(i), z = snapshot.getZ(i);
+                double orbitRadius = Math.sqrt(x * x + z * z);
+                double angularVelocity = orbitRadius == 0 ? 0
+                        : (x * snapshot.getVz(i) - z * snapshot.getVx(i)) / (orbitRadius * orbitRadius);
+                Satellite sat = new Satellite(snapshot.getId(i), orbitRadius, angularVelocity, snapshot.getRadius(i));
+                sat.setTheta(Math.atan2(z, x));
+                loaded.add(sat);
+            }
+        } catch (IOException ex) {
+            collisionLog.post("Could not load snapshot: " + ex.getMessage() + "\n");
+            return;
+        }
+        double[] radii = new double[loaded.size()];
+        for (int i = 0; i < radii.length; i++) radii[i] = loaded.get(i).radius;
+        constellation.clear();
+        constellation.addAll(radii);
+        loop.execute(() -> {
+            satellites.clear();
+            satellites.addAll(loaded);
+            collisionLog.resetContacts();
+        });
+        collisionLog.post("Loaded " + loaded.size() + " satellites from " + file.getName() + "\n");
     }
 
+    private FileChooser snapshotChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Satellite snapshot", "*.sat"));
+        return chooser;
+    }
+
+    // Simulation thread
     private void checkCollisions() {
-        for (int i = 0; i < satellites.size(); i++) {
-            for (int j = i + 1; j < satellites.size(); j++) {
-                if (satellites.get(i).collidesWith(satellites.get(j))) {
-                    log.appendText("⚠ Collision detected between "
-                            + satellites.get(i).id + " and " + satellites.get(j).id + "\n");
-                }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int n = satellites.size();
+        if (positions.size() != n) positions = SatelliteStore.blank(n);
+        for (int i = 0; i < n; i++) {
+            Satellite s = satellites.get(i);
+            // Tangential velocity per tick, so the list's margin lasts a few ticks
+            positions.update(i, s.x, 0, s.z, -s.angularVelocity * s.z, 0, s.angularVelocity * s.x, s.radius);
+        }
+        // Pairs touching anywhere in the coming tick include every pair touching now
+        neighbours.findCollisionsWithin(positions, 1, contacts);
+        int hits = 0;
+        for (int k = 0; k < contacts.size(); k++) {
+            int i = contacts.first(k), j = contacts.second(k);
+            if (satellites.get(i).collidesWith(satellites.get(j))) {
+                collisionLog.collision(i, j, satellites.get(i).id, satellites.get(j).id);
+                hits++;
             }
         }
+        collisionLog.endTick();
+        if (Metrics.ENABLED) {
+            Metrics.SWEEP_NANOS.record(System.nanoTime() - start);
+            Metrics.CONJUNCTIONS.add(hits);
+        }
     }
 
+    // Simulation thread
     private void predictFuturePositions(int steps) {
-        log.appendText("Prediction (" + steps + " steps ahead):\n");
-        for (int step = 1; step <= steps; step++) {
-            for (int i = 0; i < satellites.size(); i++) {
-                for (int j = i + 1; j < satellites.size(); j++) {
-                    if (satellites.get(i).futureCollision(satellites.get(j), step)) {
-                        log.appendText("   Possible collision between "
-                                + satellites.get(i).id + " and "
-                                + satellites.get(j).id + " at step " + step + "\n");
-                    }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        collisionLog.post("Prediction (" + steps + " steps ahead):\n");
+        for (int i = 0; i < satellites.size(); i++) {
+            for (int j = i + 1; j < satellites.size(); j++) {
+                Satellite a = satellites.get(i);
+                Satellite b = satellites.get(j);
+                OrbitConjunctions windows = a.conjunctionsWith(b, steps);
+                if (windows == null) continue;
+                StringBuilder line = new StringBuilder("   Possible collision between " + a.id + " and " + b.id
+                        + String.format(" from step %.1f to %.1f", Math.max(windows.firstStart, 0), windows.end(0)));
+                if (windows.count > 1) {
+                    line.append(String.format(", repeating every %.1f steps (%d times)",
+                            windows.period, windows.count));
                 }
+                collisionLog.post(line.append("\n").toString());
             }
         }
+        if (Metrics.ENABLED) Metrics.PREDICTION_NANOS.record(System.nanoTime() - start);
     }
 
     // Satellite class with orbit
     static class Satellite {
         String id;
         double orbitRadius;
-        double angularVelocity; // radians per frame
+        double angularVelocity; // radians per tick
         double theta = 0;       // current angle
         double radius;
-        Sphere sphere;
+
+        // Position cached once per tick. cos/sin of theta are advanced by a
+        // fixed rotation instead of calling Math.cos/Math.sin every tick, and
+        // recomputed exactly every RESYNC_TICKS so rounding cannot build up.
+        private static final int RESYNC_TICKS = 1024;
+        double x, z;
+        private double cosTheta, sinTheta;
+        private double cosStep, sinStep;
+        private int ticksSinceResync;
 
         Satellite(String id, double orbitRadius, double angularVelocity, double radius) {
             this.id = id;
             this.orbitRadius = orbitRadius;
             this.angularVelocity = angularVelocity;
             this.radius = radius;
+            this.cosStep = Math.cos(angularVelocity);
+            this.sinStep = Math.sin(angularVelocity);
+            setTheta(0);
         }
 
-        void setSphere(Sphere s) { this.sphere = s; }
+        void setTheta(double theta) {
+            this.theta = theta;
+            cosTheta = Math.cos(theta);
+            sinTheta = Math.sin(theta);
+            ticksSinceResync = 0;
+            x = orbitRadius * cosTheta;
+            z = orbitRadius * sinTheta;
+        }
 
         void updatePosition() {
-            theta += angularVelocity;
-            double x = orbitRadius * Math.cos(theta);
-            double z = orbitRadius * Math.sin(theta);
-            double y = 0; // flat orbit, can add inclination later
-            if (sphere != null) {
-                sphere.setTranslateX(x * SCALE);
-                sphere.setTranslateY(y * SCALE);
-                sphere.setTranslateZ(z * SCALE);
+            theta += angularVelocity; // flat orbit in the y = 0 plane, can add inclination later
+            if (++ticksSinceResync >= RESYNC_TICKS) {
+                setTheta(theta);
+                return;
             }
+            double c = cosTheta * cosStep - sinTheta * sinStep;
+            sinTheta = sinTheta * cosStep + cosTheta * sinStep;
+            cosTheta = c;
+            x = orbitRadius * cosTheta;
+            z = orbitRadius * sinTheta;
         }
 
+        // Reads the cached positions only
         boolean collidesWith(Satellite other) {
-            double x1 = orbitRadius * Math.cos(theta);
-            double z1 = orbitRadius * Math.sin(theta);
-            double x2 = other.orbitRadius * Math.cos(other.theta);
-            double z2 = other.orbitRadius * Math.sin(other.theta);
-            double distance = Math.sqrt((x1 - x2)*(x1 - x2) + (z1 - z2)*(z1 - z2));
-            return distance < this.radius + other.radius;
+            double dx = x - other.x;
+            double dz = z - other.z;
+            double contact = this.radius + other.radius;
+            return dx * dx + dz * dz < contact * contact;
+        }
+
+        // Every conjunction window with `other` up to the horizon, solved in constant time
+        OrbitConjunctions conjunctionsWith(Satellite other, double horizon) {
+            return OrbitConjunctions.predict(orbitRadius, theta, angularVelocity, radius,
+                    other.orbitRadius, other.theta, other.angularVelocity, other.radius, horizon);
         }
 
+        // Law of cosines on the angle between the two satellites: one cos instead of four trig calls
         boolean futureCollision(Satellite other, int steps) {
-            double futureTheta1 = theta + angularVelocity * steps;
-            double futureTheta2 = other.theta + other.angularVelocity * steps;
-            double x1 = orbitRadius * Math.cos(futureTheta1);
-            double z1 = orbitRadius * Math.sin(futureTheta1);
-            double x2 = other.orbitRadius * Math.cos(futureTheta2);
-            double z2 = other.orbitRadius * Math.sin(futureTheta2);
-            double distance = Math.sqrt((x1 - x2)*(x1 - x2) + (z1 - z2)*(z1 - z2));
-            return distance < this.radius + other.radius;
+            double gap = (theta - other.theta) + (angularVelocity - other.angularVelocity) * steps;
+            double r1 = orbitRadius, r2 = other.orbitRadius;
+            double distanceSquared = r1 * r1 + r2 * r2 - 2 * r1 * r2 * Math.cos(gap);
+            double contact = this.radius + other.radius;
+            return distanceSquared < contact * contact;
         }
     }
 }
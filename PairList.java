@@ -0,0 +1,42 @@
+import java.util.Arrays;
+
+// Growable list of index pairs (i, j) packed into longs.
+// Reused between steps so collecting pairs allocates nothing once it has grown.
+public class PairList {
+    private long[] pairs = new long[16];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int i, int j) {
+        if (size == pairs.length) pairs = Arrays.copyOf(pairs, size * 2);
+        pairs[size++] = ((long) i << 32) | (j & 0xFFFFFFFFL);
+    }
+
+    public void addAll(PairList other) {
+        if (size + other.size > pairs.length) {
+            pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, size + other.size));
+        }
+        System.arraycopy(other.pairs, 0, pairs, size, other.size);
+        size += other.size;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int first(int k) { return (int) (pairs[k] >>> 32); }
+
+    public int second(int k) { return (int) pairs[k]; }
+
+    // Orders by i then j, the order the brute-force loop visits pairs in
+    public void sort() {
+        Arrays.sort(pairs, 0, size);
+    }
+
+    public boolean sameAs(PairList other) {
+        return Arrays.equals(pairs, 0, size, other.pairs, 0, other.size);
+    }
+}
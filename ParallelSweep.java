@@ -0,0 +1,89 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Collision sweep split across a ForkJoinPool. The satellite index range is
+// cut into chunks; each chunk collects its own pairs and chunks are joined
+// in index order, so results match the sequential path exactly.
+public class ParallelSweep implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    public ParallelSweep(int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    public int getParallelism() { return pool.getParallelism(); }
+
+    // Same result as grid.findCollisionsWithin(store, dt, out)
+    public void findCollisionsWithin(SatelliteStore store, SpatialHash grid, double dt, PairList out) {
+        grid.build(store);
+        run(new Chunk(store, grid, dt, 0, store.size(), threshold(store.size())), out);
+    }
+
+    // Same result as store.bruteForceCollisions(dt, out)
+    public void bruteForceCollisions(SatelliteStore store, double dt, PairList out) {
+        run(new Chunk(store, null, dt, 0, store.size(), threshold(store.size())), out);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void run(Chunk root, PairList out) {
+        out.clear();
+        out.addAll(pool.invoke(root));
+        out.sort();
+    }
+
+    // Several chunks per worker so stealing can even out dense regions
+    private int threshold(int n) {
+        return Math.max(64, n / (pool.getParallelism() * 8));
+    }
+
+    private static class Chunk extends RecursiveTask<PairList> {
+        private static final long serialVersionUID = 1L;
+
+        private final SatelliteStore store;
+        private final SpatialHash grid; // null for brute force
+        private final double dt;
+        private final int from, to, threshold;
+
+        Chunk(SatelliteStore store, SpatialHash grid, double dt, int from, int to, int threshold) {
+            this.store = store;
+            this.grid = grid;
+            this.dt = dt;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected PairList compute() {
+            if (to - from <= threshold) {
+                PairList pairs = new PairList();
+                if (grid != null) {
+                    grid.findCollisionsWithin(store, dt, from, to, new long[27], pairs);
+                } else {
+                    store.bruteForceCollisions(dt, from, to, pairs);
+                }
+                return pairs;
+            }
+            // Brute-force rows get shorter with i, so split the pair count rather than the rows
+            int mid = grid != null ? (from + to) >>> 1 : splitPoint(store.size(), from, to);
+            Chunk left = new Chunk(store, grid, dt, from, mid, threshold);
+            Chunk right = new Chunk(store, grid, dt, mid, to, threshold);
+            right.fork();
+            PairList pairs = left.compute();
+            pairs.addAll(right.join());
+            return pairs;
+        }
+
+        // Row index that halves the number of (i, j>i) pairs in [from, to)
+        private static int splitPoint(int n, int from, int to) {
+            double a = n - from, b = n - to;
+            int mid = n - (int) Math.round(Math.sqrt((a * a + b * b) / 2));
+            return Math.min(Math.max(mid, from + 1), to - 1);
+        }
+    }
+}
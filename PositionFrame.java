@@ -0,0 +1,20 @@
+// Immutable copy of every satellite position at the end of one simulation
+// tick. Built on the simulation thread and read by the FX thread; the arrays
+// are never written after construction.
+public final class PositionFrame {
+    public final long tick;
+    public final int count;
+    private final double[] x, y, z;
+
+    public PositionFrame(long tick, double[] x, double[] y, double[] z) {
+        this.tick = tick;
+        this.count = x.length;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getZ(int i) { return z[i]; }
+}
@@ -0,0 +1,27 @@
+// Advances satellite state vectors in bulk. Implementations work directly
+// on the SatelliteStore columns (or any arrays laid out the same way) and
+// update them in place.
+public interface Propagator {
+
+    // Earth defaults, in km and seconds
+    double EARTH_MU = 398600.4418;     // km^3/s^2
+    double EARTH_RADIUS = 6378.137;    // km
+    double EARTH_J2 = 1.08262668e-3;
+
+    // Advances satellites from..to-1 by dt
+    void propagate(double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz,
+                   int from, int to, double dt);
+
+    // linear, kepler, rk4, rk4-j2, dp or dp-j2
+    static Propagator forName(String name, double mu) {
+        switch (name) {
+            case "linear": return new LinearPropagator();
+            case "kepler": return new KeplerPropagator(mu);
+            case "rk4": return new NumericalPropagator(mu, false, NumericalPropagator.Integrator.RK4);
+            case "rk4-j2": return new NumericalPropagator(mu, true, NumericalPropagator.Integrator.RK4);
+            case "dp": return new NumericalPropagator(mu, false, NumericalPropagator.Integrator.DORMAND_PRINCE);
+            case "dp-j2": return new NumericalPropagator(mu, true, NumericalPropagator.Integrator.DORMAND_PRINCE);
+            default: throw new IllegalArgumentException("Unknown propagator: " + name);
+        }
+    }
+}
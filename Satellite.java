@@ -19,14 +19,39 @@ public class Satellite {
     }
 
     public double distanceTo(Satellite other) {
-        return Math.sqrt(Math.pow(x - other.x, 2) +
-                Math.pow(y - other.y, 2) +
-                Math.pow(z - other.z, 2));
+        return Math.sqrt(distanceSquaredTo(other));
     }
 
+    public double distanceSquaredTo(Satellite other) {
+        double dx = x - other.x, dy = y - other.y, dz = z - other.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Compares squared distances, so no sqrt
     public boolean isColliding(Satellite other,boolean is3D) {
-        return distanceTo(other) <= (this.radius + other.radius);
+        double contact = this.radius + other.radius;
+        return distanceSquaredTo(other) <= contact * contact;
+    }
+
+    // Closest approach over the next dt time units, assuming both keep their velocity
+    public ClosestApproach closestApproach(Satellite other, double dt) {
+        return ClosestApproach.compute(x - other.x, y - other.y, z - other.z,
+                vx - other.vx, vy - other.vy, vz - other.vz, dt);
+    }
+
+    // Swept version of isColliding: true if the pair touches at any time in [0, dt]
+    public boolean isCollidingWithin(Satellite other, double dt) {
+        return closestApproach(other, dt).missDistance <= (this.radius + other.radius);
     }
 
     public String getId() { return id; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getZ() { return z; }
+    public double getVx() { return vx; }
+    public double getVy() { return vy; }
+    public double getVz() { return vz; }
+    public double getRadius() { return radius; }
+
+    public double getSpeed() { return Math.sqrt(vx * vx + vy * vy + vz * vz); }
 }
@@ -0,0 +1,193 @@
+import java.util.*;
+
+// Structure-of-arrays satellite catalog. State lives in primitive columns
+// indexed by an int handle, so propagation and collision checks are flat
+// loops over double[] with no per-object allocation or pointer chasing.
+public class SatelliteStore {
+    private Map<String, Integer> indexById = new HashMap<>(); // null until first needed after wrap()
+    private String[] ids;
+    double[] x, y, z;
+    double[] vx, vy, vz;
+    double[] radius;
+    private int size;
+    private int layoutVersion; // bumped whenever an index starts naming a different satellite
+
+    public SatelliteStore() {
+        this(16);
+    }
+
+    public SatelliteStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new String[capacity];
+        x = new double[capacity]; y = new double[capacity]; z = new double[capacity];
+        vx = new double[capacity]; vy = new double[capacity]; vz = new double[capacity];
+        radius = new double[capacity];
+    }
+
+    // Takes ownership of the given columns, which must hold n entries each
+    static SatelliteStore wrap(String[] ids, double[] x, double[] y, double[] z,
+                               double[] vx, double[] vy, double[] vz, double[] radius, int n) {
+        SatelliteStore store = new SatelliteStore(0);
+        store.ids = ids;
+        store.x = x; store.y = y; store.z = z;
+        store.vx = vx; store.vy = vy; store.vz = vz;
+        store.radius = radius;
+        store.size = n;
+        // Most bulk-loaded runs never look an id up, so the index is built on demand
+        store.indexById = null;
+        return store;
+    }
+
+    // n satellites without ids and with zeroed state, to be filled in by update()
+    static SatelliteStore blank(int n) {
+        return wrap(new String[n], new double[n], new double[n], new double[n],
+                new double[n], new double[n], new double[n], new double[n], n);
+    }
+
+    // Returns the index assigned to the new satellite
+    public int add(String id, double x, double y, double z, double vx, double vy, double vz, double radius) {
+        if (index().containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate satellite id: " + id);
+        }
+        if (size == ids.length) grow(Math.max(size * 2, 16));
+        int i = size++;
+        ids[i] = id;
+        this.x[i] = x; this.y[i] = y; this.z[i] = z;
+        this.vx[i] = vx; this.vy[i] = vy; this.vz[i] = vz;
+        this.radius[i] = radius;
+        indexById.put(id, i);
+        return i;
+    }
+
+    // New state for an existing satellite; its index does not change
+    public void update(int i, double x, double y, double z, double vx, double vy, double vz, double radius) {
+        this.x[i] = x; this.y[i] = y; this.z[i] = z;
+        this.vx[i] = vx; this.vy[i] = vy; this.vz[i] = vz;
+        this.radius[i] = radius;
+    }
+
+    // Removes satellite i by moving the last one into its slot. Returns the
+    // old index of the satellite that moved to i, or -1 if i was the last.
+    public int remove(int i) {
+        index().remove(ids[i]);
+        int last = --size;
+        int moved = -1;
+        if (i != last) {
+            ids[i] = ids[last];
+            x[i] = x[last]; y[i] = y[last]; z[i] = z[last];
+            vx[i] = vx[last]; vy[i] = vy[last]; vz[i] = vz[last];
+            radius[i] = radius[last];
+            indexById.put(ids[i], i);
+            moved = last;
+        }
+        ids[last] = null;
+        layoutVersion++;
+        return moved;
+    }
+
+    public void add(Satellite s) {
+        add(s.getId(), s.getX(), s.getY(), s.getZ(), s.getVx(), s.getVy(), s.getVz(), s.getRadius());
+    }
+
+    public int size() { return size; }
+
+    // Changes when indices are reassigned, so index-keyed caches know to rebuild
+    int layoutVersion() { return layoutVersion; }
+
+    public int indexOf(String id) {
+        Integer i = index().get(id);
+        return i == null ? -1 : i;
+    }
+
+    public String getId(int i) { return ids[i]; }
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getZ(int i) { return z[i]; }
+    public double getVx(int i) { return vx[i]; }
+    public double getVy(int i) { return vy[i]; }
+    public double getVz(int i) { return vz[i]; }
+    public double getRadius(int i) { return radius[i]; }
+
+    public double maxRadius() {
+        double max = 0;
+        for (int i = 0; i < size; i++) max = Math.max(max, radius[i]);
+        return max;
+    }
+
+    public double maxSpeed() {
+        double max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i]);
+        }
+        return Math.sqrt(max);
+    }
+
+    // Same as Satellite.move for every object, scaled by dt
+    public void move(double dt) {
+        double[] x = this.x, y = this.y, z = this.z;
+        double[] vx = this.vx, vy = this.vy, vz = this.vz;
+        int n = size;
+        for (int i = 0; i < n; i++) x[i] += vx[i] * dt;
+        for (int i = 0; i < n; i++) y[i] += vy[i] * dt;
+        for (int i = 0; i < n; i++) z[i] += vz[i] * dt;
+    }
+
+    // Advances every satellite by dt with the given dynamics
+    public void propagate(Propagator propagator, double dt) {
+        propagator.propagate(x, y, z, vx, vy, vz, 0, size, dt);
+    }
+
+    // Swept test: true if i and j touch at any time in [0, dt]
+    public boolean isCollidingWithin(int i, int j, double dt) {
+        double contact = radius[i] + radius[j];
+        return ClosestApproach.missDistanceSquared(x[i] - x[j], y[i] - y[j], z[i] - z[j],
+                vx[i] - vx[j], vy[i] - vy[j], vz[i] - vz[j], dt) <= contact * contact;
+    }
+
+    // Closest distance between i and j over [0, dt]
+    public double missDistanceWithin(int i, int j, double dt) {
+        return Math.sqrt(ClosestApproach.missDistanceSquared(x[i] - x[j], y[i] - y[j], z[i] - z[j],
+                vx[i] - vx[j], vy[i] - vy[j], vz[i] - vz[j], dt));
+    }
+
+    // Reference O(n^2) sweep, kept for comparison with the broad phase
+    public void bruteForceCollisions(double dt, PairList out) {
+        out.clear();
+        bruteForceCollisions(dt, 0, size, out);
+    }
+
+    // Pairs (i, j) with from <= i < to, in loop order; appends to out
+    void bruteForceCollisions(double dt, int from, int to, PairList out) {
+        for (int i = from; i < to; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (isCollidingWithin(i, j, dt)) out.add(i, j);
+            }
+        }
+        if (Metrics.ENABLED) {
+            // No broad phase: every pair passes and is tested
+            long pairs = 0;
+            for (int i = from; i < to; i++) pairs += size - i - 1;
+            Metrics.BROAD_PHASE_PAIRS.add(pairs);
+            Metrics.PAIRS_TESTED.add(pairs);
+        }
+    }
+
+    private Map<String, Integer> index() {
+        if (indexById == null) {
+            indexById = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                if (indexById.put(ids[i], i) != null) {
+                    throw new IllegalArgumentException("Duplicate satellite id: " + ids[i]);
+                }
+            }
+        }
+        return indexById;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        x = Arrays.copyOf(x, capacity); y = Arrays.copyOf(y, capacity); z = Arrays.copyOf(z, capacity);
+        vx = Arrays.copyOf(vx, capacity); vy = Arrays.copyOf(vy, capacity); vz = Arrays.copyOf(vz, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.Random;
+
+// Throughput of the parallel sweep at 1, 2, 4, ... N threads on a seeded
+// synthetic catalog. Exits with status 1 if any thread count gives a
+// different result from the sequential sweep.
+// Usage: java ScalingBenchmark [satellites] [steps] [maxThreads] [--brute-force]
+public class ScalingBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        boolean bruteForce = args.length > 3 && args[3].equals("--brute-force");
+
+        SatelliteStore reference = catalog(n, 42);
+        PairList expected = new PairList();
+        SpatialHash.forStore(reference, 1).findCollisionsWithin(reference, 1, expected);
+
+        System.out.println("satellites=" + n + " steps=" + steps + (bruteForce ? " brute-force" : " grid"));
+        double baseline = 0;
+        boolean deterministic = true;
+        // Powers of two, then maxThreads itself if it is not one
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1
+                : Math.min(threads * 2, maxThreads)) {
+            SatelliteStore store = catalog(n, 42);
+            SpatialHash grid = SpatialHash.forStore(store, 1);
+            PairList pairs = new PairList();
+            try (ParallelSweep sweep = new ParallelSweep(threads)) {
+                // Check determinism against the sequential sweep before timing
+                sweep(sweep, store, grid, bruteForce, pairs);
+                if (!pairs.sameAs(expected)) {
+                    System.out.println("threads=" + threads + " result differs from sequential sweep");
+                    deterministic = false;
+                }
+
+                long start = System.nanoTime();
+                for (int t = 0; t < steps; t++) {
+                    sweep(sweep, store, grid, bruteForce, pairs);
+                    store.move(1);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double stepsPerSecond = steps / seconds;
+                if (threads == 1) baseline = stepsPerSecond;
+                System.out.printf("threads=%-3d %10.2f steps/s %14.0f objects/s  speedup %.2fx%n",
+                        threads, stepsPerSecond, stepsPerSecond * n, stepsPerSecond / baseline);
+            }
+        }
+        if (!deterministic) System.exit(1);
+    }
+
+    private static void sweep(ParallelSweep sweep, SatelliteStore store, SpatialHash grid,
+                              boolean bruteForce, PairList out) {
+        if (bruteForce) sweep.bruteForceCollisions(store, 1, out);
+        else sweep.findCollisionsWithin(store, grid, 1, out);
+    }
+
+    // Objects spread through a cube sized so density stays constant with n
+    static SatelliteStore catalog(int n, long seed) {
+        Random random = new Random(seed);
+        double side = 50 * Math.cbrt(n);
+        SatelliteStore store = new SatelliteStore(n);
+        for (int i = 0; i < n; i++) {
+            store.add("SAT-" + i,
+                    (random.nextDouble() - 0.5) * side,
+                    (random.nextDouble() - 0.5) * side,
+                    (random.nextDouble() - 0.5) * side,
+                    random.nextGaussian(), random.nextGaussian(), random.nextGaussian(),
+                    1 + random.nextDouble() * 4);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,284 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Coordinator for a screen spread over several JVMs. The horizon is cut
+// into time windows that overlap by one step; workers (ShardWorker) pull
+// windows over a socket, run them and stream the conjunctions back. Events
+// cut at a window edge show up in both windows that share the boundary step
+// and are merged here, so the output matches a single-process run line for
+// line.
+// Propagation is sequential in time, so the coordinator propagates the
+// catalog through the horizon once and writes the state at each window's
+// first step to a snapshot next to the input one. A window is handed out as
+// soon as its state is written; workers start from it instead of
+// propagating from step 1 themselves.
+public class ShardCoordinator {
+
+    // Coordinator to worker
+    static final byte SHARD = 1, STOP = 2;
+    // Worker to coordinator
+    static final byte EVENT = 3, END = 4, ERROR = 5, PROGRESS = 6;
+
+    // Workers send PROGRESS at least this often while running a shard, so a
+    // worker that stays silent for WORKER_TIMEOUT_MILLIS is taken as hung
+    static final long HEARTBEAT_MILLIS = 1_000;
+    private static final int WORKER_TIMEOUT_MILLIS = 120_000;
+    private static final int IDLE_POLL_MILLIS = 100;
+
+    private static final int SHARDS_PER_WORKER = 4;
+    private static final int ACCEPT_TIMEOUT_MILLIS = 60_000;
+
+    private final SatelliteStore satellites;
+    private final File snapshot;
+    private final Main.Options options;
+
+    private final Deque<int[]> pending = new ConcurrentLinkedDeque<>();
+    private final Map<Integer, List<ConjunctionEvent>> finished = new ConcurrentHashMap<>();
+    private final Map<Integer, File> windowStates = new ConcurrentHashMap<>();
+    private final AtomicReference<String> failure = new AtomicReference<>();
+    private final AtomicLong lastHeard = new AtomicLong();
+    private volatile boolean closing;
+    private int shards;
+
+    // satellites must be the state saved in snapshot; ids and indices come from it
+    public ShardCoordinator(SatelliteStore satellites, File snapshot, Main.Options options) {
+        this.satellites = satellites;
+        this.snapshot = snapshot;
+        this.options = options;
+    }
+
+    // Runs the whole horizon and prints the merged events, as Main.simulate does in batch mode
+    public void run(PrintStream out) throws IOException {
+        int steps = options.steps;
+        shards = Math.max(1, Math.min(steps, options.workers * SHARDS_PER_WORKER));
+        List<int[]> windows = new ArrayList<>();
+        for (int k = 0; k < shards; k++) {
+            int start = 1 + (int) ((long) steps * k / shards);
+            int end = (int) ((long) steps * (k + 1) / shards);
+            // One step of overlap with the next window joins events across the edge
+            windows.add(new int[]{k, start, Math.min(end + 1, steps)});
+        }
+
+        File stateDir = Files.createTempDirectory(snapshot.getAbsoluteFile().getParentFile().toPath(),
+                "windows").toFile();
+        lastHeard.set(System.currentTimeMillis());
+        Thread writer = new Thread(() -> writeWindowStates(windows, stateDir), "shard-window-states");
+        writer.setDaemon(true);
+        writer.start();
+
+        List<Process> processes = new ArrayList<>();
+        List<Thread> handlers = new ArrayList<>();
+        // Spawned workers run on this machine, so only --listen needs to accept remote connections
+        try (ServerSocket server = options.listen == 0
+                ? new ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+                : new ServerSocket(options.listen)) {
+            server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+            if (options.listen == 0) {
+                processes = spawn(options.workers, server.getLocalPort());
+            } else {
+                System.err.println("Waiting for " + options.workers + " workers on port " + server.getLocalPort());
+            }
+            for (int w = 0; w < options.workers; w++) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    throw new IOException("Only " + w + " of " + options.workers + " workers connected");
+                }
+                Thread handler = new Thread(() -> serve(socket), "shard-worker-" + (w + 1));
+                handler.setDaemon(true);
+                handler.start();
+                handlers.add(handler);
+            }
+            for (Thread handler : handlers) {
+                // Wait as long as some worker keeps reporting; the socket
+                // timeouts should end every handler first, this is the backstop
+                while (handler.isAlive()) {
+                    handler.join(WORKER_TIMEOUT_MILLIS);
+                    if (handler.isAlive() && System.currentTimeMillis() - lastHeard.get() > 2L * WORKER_TIMEOUT_MILLIS) {
+                        failure.compareAndSet(null, "no worker reported for " + 2 * WORKER_TIMEOUT_MILLIS / 1000 + " s");
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for workers");
+        } finally {
+            for (Process process : processes) process.destroy();
+            closing = true;
+            try {
+                writer.join(WORKER_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (File state : windowStates.values()) {
+                if (!state.equals(snapshot)) state.delete();
+            }
+            stateDir.delete();
+        }
+
+        if (failure.get() != null) throw new IOException("Distributed run failed: " + failure.get());
+        if (finished.size() < shards) {
+            throw new IOException((shards - finished.size()) + " of " + shards + " shards were not completed");
+        }
+
+        List<ConjunctionEvent> events = new ArrayList<>();
+        for (List<ConjunctionEvent> shard : finished.values()) events.addAll(shard);
+        List<ConjunctionEvent> merged = merge(events);
+        for (ConjunctionEvent event : merged) out.println(event);
+        if (merged.isEmpty()) {
+            out.println("No collision predicted in " + steps + " time steps.");
+        } else {
+            out.println(merged.size() + " conjunctions in " + steps + " time steps.");
+        }
+    }
+
+    // Joins pieces of the same pair whose step ranges overlap, then orders
+    // events the way ConjunctionTracker emits them: by end step, then pair
+    static List<ConjunctionEvent> merge(List<ConjunctionEvent> events) {
+        List<ConjunctionEvent> byPair = new ArrayList<>(events);
+        byPair.sort(Comparator.<ConjunctionEvent>comparingInt(e -> e.first)
+                .thenComparingInt(e -> e.second).thenComparingInt(e -> e.startStep));
+        List<ConjunctionEvent> merged = new ArrayList<>();
+        for (ConjunctionEvent event : byPair) {
+            int last = merged.size() - 1;
+            ConjunctionEvent previous = last >= 0 ? merged.get(last) : null;
+            if (previous != null && previous.first == event.first && previous.second == event.second
+                    && event.startStep <= previous.endStep) {
+                boolean closer = event.missDistance < previous.missDistance;
+                merged.set(last, new ConjunctionEvent(previous.first, previous.second,
+                        previous.firstId, previous.secondId, previous.startStep,
+                        Math.max(previous.endStep, event.endStep),
+                        closer ? event.closestStep : previous.closestStep,
+                        closer ? event.missDistance : previous.missDistance));
+            } else {
+                merged.add(event);
+            }
+        }
+        merged.sort(Comparator.<ConjunctionEvent>comparingInt(e -> e.endStep)
+                .thenComparingInt(e -> e.first).thenComparingInt(e -> e.second));
+        return merged;
+    }
+
+    static void writeEvent(DataOutputStream out, ConjunctionEvent event) throws IOException {
+        out.writeByte(EVENT);
+        out.writeInt(event.first);
+        out.writeInt(event.second);
+        out.writeInt(event.startStep);
+        out.writeInt(event.endStep);
+        out.writeInt(event.closestStep);
+        out.writeDouble(event.missDistance);
+    }
+
+    // Propagates a copy of the catalog step by step, the same way a single
+    // process would, and queues each window once its starting state is on disk
+    private void writeWindowStates(List<int[]> windows, File dir) {
+        try {
+            SatelliteStore state = Snapshot.map(snapshot).toStore();
+            Propagator propagator = Propagator.forName(options.propagator, options.mu);
+            int step = 1;
+            for (int[] window : windows) {
+                for (; step < window[1]; step++) {
+                    if (closing || failure.get() != null) return;
+                    state.propagate(propagator, 1);
+                    lastHeard.set(System.currentTimeMillis());
+                }
+                File file = snapshot;
+                if (step > 1) {
+                    file = new File(dir, "window-" + window[0] + ".sat");
+                    Snapshot.write(state, file);
+                }
+                windowStates.put(window[0], file);
+                pending.add(window);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, "could not write the state for a window: " + e.getMessage());
+        }
+    }
+
+    // Hands shards to one worker until every shard is done. A worker that
+    // drops its connection or goes silent puts its shard back, and workers
+    // stay connected until the last shard is in so one of them picks it up.
+    // A worker that reports an error stops the run, as every worker would
+    // hit it too.
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            s.setSoTimeout(WORKER_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            while (failure.get() == null && finished.size() < shards) {
+                int[] shard = pending.poll();
+                if (shard == null) {
+                    Thread.sleep(IDLE_POLL_MILLIS);
+                    continue;
+                }
+                try {
+                    List<ConjunctionEvent> events = runShard(shard, in, out);
+                    if (events != null) finished.put(shard[0], events);
+                } catch (IOException e) {
+                    pending.addFirst(shard);
+                    throw e;
+                }
+            }
+            out.writeByte(STOP);
+            out.flush();
+        } catch (IOException e) {
+            String reason = e instanceof EOFException ? "connection closed" : e.getMessage();
+            System.err.println("Lost worker " + socket.getRemoteSocketAddress() + ": " + reason);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<ConjunctionEvent> runShard(int[] shard, DataInputStream in, DataOutputStream out) throws IOException {
+        out.writeByte(SHARD);
+        out.writeUTF(windowStates.get(shard[0]).getAbsolutePath());
+        out.writeUTF(options.propagator);
+        out.writeDouble(options.mu);
+        out.writeInt(shard[1]);
+        out.writeInt(shard[2]);
+        out.flush();
+
+        List<ConjunctionEvent> events = new ArrayList<>();
+        while (true) {
+            byte type = in.readByte();
+            lastHeard.set(System.currentTimeMillis());
+            if (type == PROGRESS) continue;
+            if (type == END) return events;
+            if (type == ERROR) {
+                failure.compareAndSet(null, in.readUTF());
+                return null;
+            }
+            if (type != EVENT) throw new IOException("Unexpected message " + type);
+            int first = in.readInt(), second = in.readInt();
+            int startStep = in.readInt(), endStep = in.readInt(), closestStep = in.readInt();
+            double missDistance = in.readDouble();
+            events.add(new ConjunctionEvent(first, second, satellites.getId(first), satellites.getId(second),
+                    startStep, endStep, closestStep, missDistance));
+        }
+    }
+
+    // Local workers share this JVM's class path and stderr
+    private static List<Process> spawn(int workers, int port) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "ShardWorker", InetAddress.getLoopbackAddress().getHostAddress() + ":" + port)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+        return processes;
+    }
+}
@@ -0,0 +1,88 @@
+import java.io.*;
+import java.net.Socket;
+
+// Worker process for the distributed screen. Connects to a coordinator,
+// then runs the time-window shards it is handed and streams every
+// conjunction back as it closes. Each shard names a snapshot holding the
+// catalog's state at the window's first step, so a worker only propagates
+// through its own window.
+//
+// Usage: java ShardWorker HOST:PORT
+// The snapshot path in each shard must be readable here, so workers run on
+// the coordinator's machine or share its file system.
+public class ShardWorker {
+
+    private long lastReport;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 || args[0].lastIndexOf(':') < 0) {
+            System.err.println("Usage: java ShardWorker HOST:PORT");
+            System.exit(2);
+        }
+        String address = args[0];
+        int colon = address.lastIndexOf(':');
+        try (Socket socket = new Socket(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)))) {
+            new ShardWorker().serve(socket);
+        }
+    }
+
+    void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        while (in.readByte() == ShardCoordinator.SHARD) {
+            String path = in.readUTF();
+            String propagatorName = in.readUTF();
+            double mu = in.readDouble();
+            int start = in.readInt(), end = in.readInt();
+            try {
+                run(path, propagatorName, mu, start, end, out);
+                out.writeByte(ShardCoordinator.END);
+            } catch (IOException | RuntimeException e) {
+                out.writeByte(ShardCoordinator.ERROR);
+                out.writeUTF(String.valueOf(e.getMessage()));
+            }
+            out.flush();
+        }
+    }
+
+    // Steps start..end from the state at step start saved in path, with the
+    // same per-step order as Main.simulate
+    private void run(String path, String propagatorName, double mu, int start, int end, DataOutputStream out)
+            throws IOException {
+        SatelliteStore satellites = Snapshot.map(new File(path)).toStore();
+        Propagator propagator = Propagator.forName(propagatorName, mu);
+
+        boolean linear = propagator instanceof LinearPropagator;
+        SpatialHash grid = SpatialHash.forStore(satellites, 1);
+        PairList collisions = new PairList();
+        IOException[] failure = new IOException[1];
+        ConjunctionTracker tracker = new ConjunctionTracker(satellites, event -> {
+            if (failure[0] != null) return;
+            try {
+                ShardCoordinator.writeEvent(out, event);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        for (int t = start; t <= end; t++) {
+            if (!linear) grid.resize(satellites, 1);
+            grid.findCollisionsWithin(satellites, 1, collisions);
+            tracker.record(t, collisions, 1);
+            satellites.propagate(propagator, 1);
+            if (failure[0] != null) throw failure[0];
+            reportProgress(out);
+        }
+        tracker.flush();
+        if (failure[0] != null) throw failure[0];
+    }
+
+    // Tells the coordinator this worker is still alive, and sends the
+    // events buffered so far, at most once per heartbeat
+    private void reportProgress(DataOutputStream out) throws IOException {
+        long now = System.currentTimeMillis();
+        if (now - lastReport < ShardCoordinator.HEARTBEAT_MILLIS) return;
+        out.writeByte(ShardCoordinator.PROGRESS);
+        out.flush();
+        lastReport = now;
+    }
+}
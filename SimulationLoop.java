@@ -0,0 +1,109 @@
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Runs a simulation on its own thread at a fixed tick rate, independent of
+// the UI frame rate. The model is only ever touched by that thread; the UI
+// reads the most recent PositionFrame (published through an AtomicReference,
+// older frames are simply dropped) and hands changes back with execute().
+public class SimulationLoop {
+
+    public interface Model {
+        // Advance the simulation by one tick
+        void tick();
+
+        // Immutable copy of the current positions
+        PositionFrame capture(long tick);
+    }
+
+    private final Model model;
+    private final ScheduledExecutorService executor;
+    private final AtomicReference<PositionFrame> latest = new AtomicReference<>();
+    private final AtomicBoolean handoffPending = new AtomicBoolean();
+    private volatile Consumer<PositionFrame> frameListener;
+    private volatile Consumer<String> errorHandler = System.err::println;
+    private ScheduledFuture<?> schedule;
+    private long tick;
+
+    public SimulationLoop(Model model) {
+        this.model = model;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulation");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Starts or resumes ticking; does nothing if already running
+    public synchronized void start(int ticksPerSecond) {
+        if (isRunning()) return;
+        schedule = executor.scheduleAtFixedRate(this::step, 0, 1_000_000_000L / ticksPerSecond, TimeUnit.NANOSECONDS);
+    }
+
+    // Stops ticking but keeps the thread, so start() can resume
+    public synchronized void pause() {
+        if (schedule != null) schedule.cancel(false);
+        schedule = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return schedule != null;
+    }
+
+    // Shuts the simulation thread down for good
+    public void stop() {
+        pause();
+        executor.shutdownNow();
+    }
+
+    // Push mode: after every tick the frame is handed to listener on the FX
+    // thread, with at most one Platform.runLater outstanding at a time
+    public void setFrameListener(Consumer<PositionFrame> listener) {
+        this.frameListener = listener;
+    }
+
+    // Runs work on the simulation thread between ticks, then republishes
+    // positions so the change shows up on the next frame
+    public void execute(Runnable work) {
+        executor.execute(() -> {
+            work.run();
+            publish(model.capture(tick));
+        });
+    }
+
+    public PositionFrame latestFrame() {
+        return latest.get();
+    }
+
+    // Where exceptions thrown by a tick are reported (stderr by default)
+    public void setErrorHandler(Consumer<String> handler) {
+        this.errorHandler = handler;
+    }
+
+    private void step() {
+        try {
+            model.tick();
+            publish(model.capture(++tick));
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule; report it and keep ticking
+            errorHandler.accept("Simulation error: " + e + "\n");
+        }
+    }
+
+    private void publish(PositionFrame frame) {
+        latest.set(frame);
+        Consumer<PositionFrame> listener = frameListener;
+        if (listener != null && handoffPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                handoffPending.set(false);
+                listener.accept(latest.get());
+            });
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+// Binary catalog snapshot, laid out column by column like SatelliteStore:
+//
+//   header   64 bytes: magic "SAT1", version, count, id bytes length
+//   x, y, z, vx, vy, vz, radius   count doubles each
+//   id index count + 1 ints: offset of each id in the id bytes
+//   id bytes UTF-8, back to back
+//
+// Everything is little-endian and fixed width, so a mapped snapshot is read
+// in place: the accessors below go straight to the mapped pages and
+// toStore() is one bulk copy per column.
+public class Snapshot {
+
+    private static final int MAGIC = 0x31544153; // "SAT1" read little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int COLUMNS = 7;
+
+    private final int count;
+    private final DoubleBuffer[] columns = new DoubleBuffer[COLUMNS];
+    private final IntBuffer idIndex;
+    private final ByteBuffer idBytes;
+
+    private Snapshot(int count, DoubleBuffer[] columns, IntBuffer idIndex, ByteBuffer idBytes) {
+        this.count = count;
+        System.arraycopy(columns, 0, this.columns, 0, COLUMNS);
+        this.idIndex = idIndex;
+        this.idBytes = idBytes;
+    }
+
+    public static void write(SatelliteStore store, File file) throws IOException {
+        int n = store.size();
+        byte[][] ids = new byte[n][];
+        long idLength = 0;
+        for (int i = 0; i < n; i++) {
+            ids[i] = store.getId(i).getBytes(StandardCharsets.UTF_8);
+            idLength += ids[i].length;
+        }
+        if (idLength > Integer.MAX_VALUE) throw new IOException("Id table too large for one snapshot");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt((int) idLength);
+
+            double[][] source = {store.x, store.y, store.z, store.vx, store.vy, store.vz, store.radius};
+            long offset = HEADER_SIZE;
+            for (double[] column : source) {
+                map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * n).asDoubleBuffer().put(column, 0, n);
+                offset += 8L * n;
+            }
+
+            IntBuffer index = map(channel, FileChannel.MapMode.READ_WRITE, offset, 4L * (n + 1)).asIntBuffer();
+            offset += 4L * (n + 1);
+            ByteBuffer bytes = map(channel, FileChannel.MapMode.READ_WRITE, offset, idLength);
+            int position = 0;
+            for (int i = 0; i < n; i++) {
+                index.put(position);
+                bytes.put(ids[i]);
+                position += ids[i].length;
+            }
+            index.put(position);
+        }
+    }
+
+    public static Snapshot map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException(file + " is not a satellite snapshot");
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException(file + " is not a satellite snapshot");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException(file + ": unsupported snapshot version " + version);
+            int n = header.getInt();
+            int idLength = header.getInt();
+            long expected = HEADER_SIZE + (8L * COLUMNS + 4) * n + 4 + idLength;
+            if (channel.size() != expected) throw new IOException(file + " is truncated or corrupt");
+
+            // Mappings stay valid after the channel is closed
+            DoubleBuffer[] columns = new DoubleBuffer[COLUMNS];
+            long offset = HEADER_SIZE;
+            for (int c = 0; c < COLUMNS; c++) {
+                columns[c] = map(channel, FileChannel.MapMode.READ_ONLY, offset, 8L * n).asDoubleBuffer();
+                offset += 8L * n;
+            }
+            IntBuffer index = map(channel, FileChannel.MapMode.READ_ONLY, offset, 4L * (n + 1)).asIntBuffer();
+            offset += 4L * (n + 1);
+            ByteBuffer bytes = map(channel, FileChannel.MapMode.READ_ONLY, offset, idLength);
+            return new Snapshot(n, columns, index, bytes);
+        }
+    }
+
+    public int size() { return count; }
+
+    public double getX(int i) { return columns[0].get(i); }
+    public double getY(int i) { return columns[1].get(i); }
+    public double getZ(int i) { return columns[2].get(i); }
+    public double getVx(int i) { return columns[3].get(i); }
+    public double getVy(int i) { return columns[4].get(i); }
+    public double getVz(int i) { return columns[5].get(i); }
+    public double getRadius(int i) { return columns[6].get(i); }
+
+    public String getId(int i) {
+        int start = idIndex.get(i), end = idIndex.get(i + 1);
+        byte[] bytes = new byte[end - start];
+        for (int k = 0; k < bytes.length; k++) bytes[k] = idBytes.get(start + k);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Copies the snapshot into a new store, one bulk transfer per column
+    public SatelliteStore toStore() {
+        double[][] data = new double[COLUMNS][count];
+        for (int c = 0; c < COLUMNS; c++) columns[c].duplicate().get(data[c]);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) ids[i] = getId(i);
+        return SatelliteStore.wrap(ids, data[0], data[1], data[2], data[3], data[4], data[5], data[6], count);
+    }
+
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long length)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
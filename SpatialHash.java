@@ -0,0 +1,218 @@
+import java.util.Arrays;
+
+// Uniform grid broad phase. Cells are sized so that any colliding pair
+// always sits in the same or an adjacent cell.
+// Cells live in an open-addressing table with a linked list of members per
+// cell, all in primitive arrays that are reused from step to step.
+// Besides the per-step build, single satellites can be inserted, moved and
+// removed, for feeds that change a few objects at a time.
+public class SpatialHash {
+
+    private static final long CELL_MASK = (1L << 21) - 1;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private double cellSize;
+    private long[] tableKeys = new long[0];
+    private int[] tableHeads = new int[0];
+    private int[] next = new int[0];
+    private long[] cellOf = new long[0]; // key of the cell each satellite was filed under
+    private int cells;                   // occupied table slots, emptied ones included
+    private final long[] neighbours = new long[27];
+
+    public SpatialHash(double cellSize) {
+        this.cellSize = cellSize > 0 ? cellSize : 1.0;
+    }
+
+    // Cell size that covers the biggest radius plus the distance any pair
+    // can close within dt
+    public static SpatialHash forStore(SatelliteStore store, double dt) {
+        SpatialHash grid = new SpatialHash(1);
+        grid.resize(store, dt);
+        return grid;
+    }
+
+    public double getCellSize() { return cellSize; }
+
+    public void setCellSize(double cellSize) {
+        this.cellSize = cellSize > 0 ? cellSize : 1.0;
+    }
+
+    // Re-derives the cell size when speeds change between steps
+    public void resize(SatelliteStore store, double dt) {
+        double size = 2 * store.maxRadius() + 2 * store.maxSpeed() * dt;
+        cellSize = size > 0 ? size : 1.0;
+    }
+
+    public void build(SatelliteStore store) {
+        int n = store.size();
+        ensureCapacity(n);
+        Arrays.fill(tableKeys, EMPTY);
+        cells = 0;
+        for (int i = 0; i < n; i++) link(store, i);
+    }
+
+    // Files satellite i, e.g. one just added to the store; the grid must have been built
+    public void insert(SatelliteStore store, int i) {
+        if (i >= next.length) {
+            int capacity = Math.max(next.length * 2, i + 1);
+            next = Arrays.copyOf(next, capacity);
+            cellOf = Arrays.copyOf(cellOf, capacity);
+        }
+        // Keep the table at most half full; a rebuild also drops emptied cells
+        if ((cells + 1) * 2 > tableKeys.length) {
+            build(store);
+            return;
+        }
+        link(store, i);
+    }
+
+    // Unfiles satellite i, before it is removed from the store or moved
+    public void remove(int i) {
+        int slot = find(cellOf[i], tableKeys.length - 1);
+        if (tableHeads[slot] == i) {
+            tableHeads[slot] = next[i];
+            return;
+        }
+        int previous = tableHeads[slot];
+        while (next[previous] != i) previous = next[previous];
+        next[previous] = next[i];
+    }
+
+    // Refiles satellite i after its position changed
+    public void update(SatelliteStore store, int i) {
+        long key = key(cell(store.x[i]), cell(store.y[i]), cell(store.z[i]));
+        if (key == cellOf[i]) return;
+        remove(i);
+        insert(store, i);
+    }
+
+    // Pairs (min, max) of i with every satellite filed in its cell or a
+    // touching one, unsorted and untested; the grid must be up to date
+    public void neighboursOf(SatelliteStore store, int i, PairList out) {
+        int mask = tableKeys.length - 1;
+        int count = neighbourKeys(store.x[i], store.y[i], store.z[i], neighbours);
+        for (int k = 0; k < count; k++) {
+            int slot = find(neighbours[k], mask);
+            if (slot < 0) continue;
+            for (int j = tableHeads[slot]; j >= 0; j = next[j]) {
+                if (j != i) out.add(Math.min(i, j), Math.max(i, j));
+            }
+        }
+    }
+
+    private void link(SatelliteStore store, int i) {
+        long key = key(cell(store.x[i]), cell(store.y[i]), cell(store.z[i]));
+        int slot = slot(key, tableKeys.length - 1);
+        if (tableKeys[slot] == EMPTY) {
+            tableKeys[slot] = key;
+            tableHeads[slot] = -1;
+            cells++;
+        }
+        next[i] = tableHeads[slot];
+        tableHeads[slot] = i;
+        cellOf[i] = key;
+    }
+
+    // All pairs (i, j), i < j, sharing a cell or touching cells.
+    // Sorted by i then j, the same order as the brute-force loop visits them.
+    public void candidatePairs(SatelliteStore store, PairList out) {
+        build(store);
+        out.clear();
+        int mask = tableKeys.length - 1;
+        for (int i = 0; i < store.size(); i++) {
+            int count = neighbourKeys(store.x[i], store.y[i], store.z[i], neighbours);
+            for (int k = 0; k < count; k++) {
+                int slot = find(neighbours[k], mask);
+                if (slot < 0) continue;
+                for (int j = tableHeads[slot]; j >= 0; j = next[j]) {
+                    if (j > i) out.add(i, j);
+                }
+            }
+        }
+        out.sort();
+    }
+
+    // Pairs that touch at any time in [0, dt]; the grid must have been
+    // sized for the same dt
+    public void findCollisionsWithin(SatelliteStore store, double dt, PairList out) {
+        build(store);
+        out.clear();
+        findCollisionsWithin(store, dt, 0, store.size(), neighbours, out);
+        out.sort();
+    }
+
+    // Query half of findCollisionsWithin for satellites from..to-1 against an
+    // already built grid. Appends unsorted; only reads shared state, so
+    // disjoint ranges can run on different threads.
+    void findCollisionsWithin(SatelliteStore store, double dt, int from, int to, long[] keys, PairList out) {
+        int mask = tableKeys.length - 1;
+        long tested = 0;
+        for (int i = from; i < to; i++) {
+            int count = neighbourKeys(store.x[i], store.y[i], store.z[i], keys);
+            for (int k = 0; k < count; k++) {
+                int slot = find(keys[k], mask);
+                if (slot < 0) continue;
+                for (int j = tableHeads[slot]; j >= 0; j = next[j]) {
+                    if (j <= i) continue;
+                    tested++;
+                    if (store.isCollidingWithin(i, j, dt)) out.add(i, j);
+                }
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.BROAD_PHASE_PAIRS.add(tested);
+            Metrics.PAIRS_TESTED.add(tested);
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (next.length < n) {
+            next = new int[n];
+            cellOf = new long[n];
+        }
+        int tableSize = Integer.highestOneBit(Math.max(n, 8) * 2 - 1) << 1;
+        if (tableKeys.length < tableSize) {
+            tableKeys = new long[tableSize];
+            tableHeads = new int[tableSize];
+        }
+    }
+
+    private int find(long key, int mask) {
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (tableKeys[slot] == key) return slot;
+            if (tableKeys[slot] == EMPTY) return -1;
+        }
+    }
+
+    private int slot(long key, int mask) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (tableKeys[slot] != EMPTY && tableKeys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private long cell(double v) {
+        return (long) Math.floor(v / cellSize);
+    }
+
+    private static long key(long cx, long cy, long cz) {
+        return ((cx & CELL_MASK) << 42) | ((cy & CELL_MASK) << 21) | (cz & CELL_MASK);
+    }
+
+    // Distinct keys of the 3x3x3 block around a point; packing can fold
+    // far-apart cells onto one key, so duplicates are dropped here
+    private int neighbourKeys(double x, double y, double z, long[] neighbours) {
+        long cx = cell(x), cy = cell(y), cz = cell(z);
+        int count = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    long k = key(cx + dx, cy + dy, cz + dz);
+                    boolean seen = false;
+                    for (int n = 0; n < count && !seen; n++) seen = neighbours[n] == k;
+                    if (!seen) neighbours[count++] = k;
+                }
+            }
+        }
+        return count;
+    }
+}
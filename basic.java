@@ -1,4 +1,5 @@
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
@@ -12,10 +13,17 @@ import javafx.stage.Stage;
 import java.util.ArrayList;
 import java.util.List;
 
-public class basic extends Application {
+public class basic extends Application implements SimulationLoop.Model {
 
+    // Owned by the simulation thread once the loop has been started
     private List<Satellite> satellites = new ArrayList<>();
-    private boolean running = false;
+    // FX thread copy of the radii, in the same order, for drawing
+    private List<Double> radii = new ArrayList<>();
+    private SimulationLoop loop = new SimulationLoop(this);
+    private CollisionLog collisionLog = CollisionLog.open(LOG_LINES, "");
+
+    private static final int TICKS_PER_SECOND = 20; // control simulation speed
+    private static final int LOG_LINES = 200;
 
     public static void main(String[] args) {
         launch(args);
@@ -31,7 +39,15 @@ public class basic extends Application {
         log.setEditable(false);
 
         Button startBtn = new Button("Start Simulation");
-        startBtn.setOnAction(e -> running = true);
+        startBtn.setOnAction(e -> {
+            if (loop.isRunning()) {
+                loop.pause();
+                startBtn.setText("Start Simulation");
+            } else {
+                loop.start(TICKS_PER_SECOND);
+                startBtn.setText("Stop Simulation");
+            }
+        });
 
         root.setCenter(canvas);
         root.setBottom(log);
@@ -42,40 +58,77 @@ public class basic extends Application {
         stage.setTitle("Satellite Collision Detection");
         stage.show();
 
-        // Example: Add satellites manually (later, add user input form)
-        satellites.add(new Satellite("Sat-1", 100, 100, 2, 1, 10));
-        satellites.add(new Satellite("Sat-2", 700, 500, -2, -1, 10));
-
-        // Animation loop
-        new Thread(() -> {
-            while (true) {
-                if (running) {
-                    gc.clearRect(0, 0, 800, 600);
-
-                    for (Satellite s : satellites) {
-                        s.updatePosition();
-                        gc.setFill(Color.BLUE);
-                        gc.fillOval(s.x, s.y, s.radius * 2, s.radius * 2);
-                    }
-
-                    // Collision detection
-                    for (int i = 0; i < satellites.size(); i++) {
-                        for (int j = i + 1; j < satellites.size(); j++) {
-                            if (satellites.get(i).collidesWith(satellites.get(j))) {
-                                log.appendText("Collision detected between " +
-                                        satellites.get(i).id + " and " +
-                                        satellites.get(j).id + "\n");
-                            }
-                        }
-                    }
+        loop.setErrorHandler(collisionLog::post);
+
+        // One hand-off per finished frame: draw it
+        loop.setFrameListener(frame -> {
+            gc.clearRect(0, 0, 800, 600);
+            gc.setFill(Color.BLUE);
+            int n = Math.min(frame.count, radii.size());
+            for (int i = 0; i < n; i++) {
+                double radius = radii.get(i);
+                gc.fillOval(frame.getX(i), frame.getY(i), radius * 2, radius * 2);
+            }
+        });
+
+        // The log is refreshed on its own timer, so lines posted while the
+        // simulation is stopped still show up
+        AnimationTimer logTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                String text = collisionLog.textIfDue(now);
+                if (text != null) {
+                    log.setText(text);
+                    log.positionCaret(text.length());
                 }
-                try {
-                    Thread.sleep(50); // control simulation speed
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+            }
+        };
+        logTimer.start();
+
+        // Example: Add satellites manually (later, add user input form)
+        addSatellite(new Satellite("Sat-1", 100, 100, 2, 1, 10));
+        addSatellite(new Satellite("Sat-2", 700, 500, -2, -1, 10));
+    }
+
+    @Override
+    public void stop() {
+        loop.stop();
+        collisionLog.close();
+    }
+
+    private void addSatellite(Satellite sat) {
+        radii.add(sat.radius);
+        loop.execute(() -> satellites.add(sat));
+    }
+
+    // Simulation thread
+    @Override
+    public void tick() {
+        for (Satellite s : satellites) {
+            s.updatePosition();
+        }
+
+        // Collision detection
+        for (int i = 0; i < satellites.size(); i++) {
+            for (int j = i + 1; j < satellites.size(); j++) {
+                if (satellites.get(i).collidesWith(satellites.get(j))) {
+                    collisionLog.collision(i, j, satellites.get(i).id, satellites.get(j).id);
                 }
             }
-        }).start();
+        }
+        collisionLog.endTick();
+    }
+
+    // Simulation thread
+    @Override
+    public PositionFrame capture(long tick) {
+        int n = satellites.size();
+        double[] x = new double[n], y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = satellites.get(i).x;
+            y[i] = satellites.get(i).y;
+        }
+        return new PositionFrame(tick, x, y, new double[n]);
     }
 
     // Satellite class
@@ -0,0 +1,217 @@
+import bench.Workload;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// The default-package side of the JMH benchmarks (see bench.Workload). Each
+// member builds one seeded workload in setUp and runs one operation of it.
+public class Workloads {
+
+    static final long SEED = 42;
+
+    public static class SatelliteMove implements Workload {
+        private Satellite a;
+
+        @Override
+        public void setUp(String param) { a = satellites(1).get(0); }
+
+        @Override
+        public double run() {
+            a.move();
+            return a.getX();
+        }
+    }
+
+    public static class DistanceTo implements Workload {
+        Satellite a, b;
+
+        @Override
+        public void setUp(String param) {
+            List<Satellite> pair = satellites(2);
+            a = pair.get(0);
+            b = pair.get(1);
+        }
+
+        @Override
+        public double run() { return a.distanceTo(b); }
+    }
+
+    public static class IsColliding extends DistanceTo {
+        @Override
+        public double run() { return a.isColliding(b, true) ? 1 : 0; }
+    }
+
+    public static class IsCollidingWithin extends DistanceTo {
+        @Override
+        public double run() { return a.isCollidingWithin(b, 1) ? 1 : 0; }
+    }
+
+    // One step of the sweep on a seeded catalog of param satellites, then a
+    // move. Steps alternate forward and back, so every operation sees one of
+    // the same two states and the catalog does not spread out during a run.
+    abstract static class Sweep implements Workload {
+        SatelliteStore store;
+        final PairList pairs = new PairList();
+        private double dt = 1;
+
+        @Override
+        public void setUp(String param) {
+            store = ScalingBenchmark.catalog(Integer.parseInt(param), SEED);
+            prepare();
+        }
+
+        void prepare() {
+        }
+
+        abstract void sweep();
+
+        @Override
+        public double run() {
+            sweep();
+            store.move(dt);
+            dt = -dt;
+            return pairs.size();
+        }
+    }
+
+    public static class StoreMove extends Sweep {
+        @Override
+        void sweep() {
+        }
+    }
+
+    public static class Grid extends Sweep {
+        private SpatialHash grid;
+
+        @Override
+        void prepare() { grid = SpatialHash.forStore(store, 1); }
+
+        @Override
+        void sweep() { grid.findCollisionsWithin(store, 1, pairs); }
+    }
+
+    public static class Screen extends Sweep {
+        private final ConjunctionScreen screen = new ConjunctionScreen();
+
+        @Override
+        void sweep() { screen.findCollisionsWithin(store, 1, pairs); }
+    }
+
+    // Back-and-forth motion stays inside the margin, so this is the re-check without list rebuilds
+    public static class Incremental extends Sweep {
+        private final NeighbourList neighbours = new NeighbourList(0);
+
+        @Override
+        void sweep() { neighbours.findCollisionsWithin(store, 1, pairs); }
+    }
+
+    public static class BruteForce extends Sweep {
+        @Override
+        void sweep() { store.bruteForceCollisions(1, pairs); }
+    }
+
+    // One 60 s step of 10k seeded orbits with the propagator named by param
+    public static class Propagate implements Workload {
+        private SatelliteStore orbits;
+        private Propagator propagator;
+
+        @Override
+        public void setUp(String param) {
+            orbits = OrbitCatalog.catalog(OrbitCatalog.randomElements(10_000, SEED), 0.01);
+            propagator = Propagator.forName(param, Propagator.EARTH_MU);
+        }
+
+        @Override
+        public double run() {
+            orbits.propagate(propagator, 60);
+            return orbits.getX(0);
+        }
+    }
+
+    // Random interpolated lookups in six-hour Kepler tables, 60 s knots, for
+    // 1k fresh seeded orbits (about 17 MB of tables, all prefetched)
+    public static class Ephemeris implements Workload {
+        private SatelliteStore orbits;
+        private EphemerisCache cache;
+        private final double[] position = new double[3];
+        private final Random random = new Random(SEED);
+
+        @Override
+        public void setUp(String param) {
+            orbits = OrbitCatalog.catalog(OrbitCatalog.randomElements(1_000, SEED), 0.01);
+            cache = new EphemerisCache(Propagator.forName("kepler", Propagator.EARTH_MU), 60, 6 * 3600, Long.MAX_VALUE);
+            cache.prefetch(orbits);
+        }
+
+        @Override
+        public double run() {
+            cache.position(orbits, random.nextInt(orbits.size()), random.nextDouble() * 6 * 3600, position);
+            return position[0];
+        }
+    }
+
+    // Two LEO objects crossing at right angles mid-step, 1 km position
+    // sigma: Pc around 0.2, so sampling stops on convergence
+    public static class Probability implements Workload {
+        private final SatelliteStore encounter = new SatelliteStore();
+        private CollisionProbability probability;
+
+        @Override
+        public void setUp(String param) {
+            encounter.add("A", 7000, 0, 3.75, 0, 7.5, 0, 0.5);
+            encounter.add("B", 7000, 3.75, 0, 0, 0, 7.5, 0.5);
+            probability = new CollisionProbability(param, Propagator.EARTH_MU,
+                    Runtime.getRuntime().availableProcessors(), SEED);
+        }
+
+        @Override
+        public double run() { return probability.estimate(encounter, 0, 1, 1, 0, 1, 0).pc; }
+
+        @Override
+        public void tearDown() { probability.close(); }
+    }
+
+    // Step-by-step prediction over param ticks
+    public static class FutureCollision implements Workload {
+        OrbitingSat.Satellite s1, s2;
+        int horizon;
+
+        @Override
+        public void setUp(String param) {
+            Random random = new Random(SEED);
+            s1 = new OrbitingSat.Satellite("O-1", 150, 0.05, 10);
+            s2 = new OrbitingSat.Satellite("O-2", 155, 0.03 + random.nextDouble() * 0.01, 10);
+            horizon = Integer.parseInt(param);
+        }
+
+        @Override
+        public double run() {
+            int hits = 0;
+            for (int step = 1; step <= horizon; step++) {
+                if (s1.futureCollision(s2, step)) hits++;
+            }
+            return hits;
+        }
+    }
+
+    // Closed-form prediction over the same horizon
+    public static class ConjunctionsWith extends FutureCollision {
+        @Override
+        public double run() {
+            OrbitConjunctions windows = s1.conjunctionsWith(s2, horizon);
+            return windows == null ? 0 : windows.count;
+        }
+    }
+
+    static List<Satellite> satellites(int n) {
+        Random random = new Random(SEED);
+        List<Satellite> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(new Satellite("SAT-" + i,
+                    random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 1000,
+                    random.nextGaussian(), random.nextGaussian(), random.nextGaussian(),
+                    1 + random.nextDouble() * 4));
+        }
+        return list;
+    }
+}
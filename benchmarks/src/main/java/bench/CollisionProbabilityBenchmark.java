@@ -0,0 +1,28 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One Monte Carlo Pc estimate per operation, for a crossing LEO encounter
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionProbabilityBenchmark {
+
+    @Param({"linear", "kepler"})
+    public String propagator;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() { workload = Workload.load("Probability", propagator); }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { workload.tearDown(); }
+
+    @Benchmark
+    public double estimate() { return workload.run(); }
+}
@@ -0,0 +1,22 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One interpolated position lookup per operation from prefetched ephemeris tables
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EphemerisBenchmark {
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() { workload = Workload.load("Ephemeris", ""); }
+
+    @Benchmark
+    public double position() { return workload.run(); }
+}
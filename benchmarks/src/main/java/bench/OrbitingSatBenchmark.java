@@ -0,0 +1,29 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// OrbitingSat prediction for one pair over a short and a long horizon:
+// stepping futureCollision against the closed-form conjunction windows
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrbitingSatBenchmark {
+
+    @Param({"FutureCollision", "ConjunctionsWith"})
+    public String prediction;
+
+    @Param({"360", "36000"})
+    public String steps;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() { workload = Workload.load(prediction, steps); }
+
+    @Benchmark
+    public double predict() { return workload.run(); }
+}
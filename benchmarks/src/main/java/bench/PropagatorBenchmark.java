@@ -0,0 +1,25 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One 60 s step of 10k seeded orbits per operation
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropagatorBenchmark {
+
+    @Param({"linear", "kepler", "rk4", "rk4-j2", "dp", "dp-j2"})
+    public String propagator;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() { workload = Workload.load("Propagate", propagator); }
+
+    @Benchmark
+    public double propagate() { return workload.run(); }
+}
@@ -0,0 +1,25 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Single-object kernels on a seeded pair of satellites
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SatelliteBenchmark {
+
+    @Param({"SatelliteMove", "DistanceTo", "IsColliding", "IsCollidingWithin"})
+    public String kernel;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() { workload = Workload.load(kernel, ""); }
+
+    @Benchmark
+    public double satellite() { return workload.run(); }
+}
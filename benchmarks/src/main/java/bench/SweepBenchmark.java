@@ -0,0 +1,45 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One collision sweep plus move per operation, on a seeded catalog rebuilt
+// for every trial. Brute force is quadratic, so it stops at 10k.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SweepBenchmark {
+
+    @State(Scope.Thread)
+    public static class Catalog {
+        @Param({"StoreMove", "Grid", "Screen", "Incremental"})
+        public String sweep;
+
+        @Param({"1000", "10000", "100000"})
+        public String n;
+
+        Workload workload;
+
+        @Setup(Level.Trial)
+        public void setUp() { workload = Workload.load(sweep, n); }
+    }
+
+    @State(Scope.Thread)
+    public static class SmallCatalog {
+        @Param({"1000", "10000"})
+        public String n;
+
+        Workload workload;
+
+        @Setup(Level.Trial)
+        public void setUp() { workload = Workload.load("BruteForce", n); }
+    }
+
+    @Benchmark
+    public double sweep(Catalog catalog) { return catalog.workload.run(); }
+
+    @Benchmark
+    public double bruteForce(SmallCatalog catalog) { return catalog.workload.run(); }
+}
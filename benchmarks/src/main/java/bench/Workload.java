@@ -0,0 +1,28 @@
+package bench;
+
+// JMH only accepts benchmarks in a named package, and a named package cannot
+// refer to the simulator's default-package classes. Each workload is a
+// default-package class (a Workloads member) behind this interface, loaded
+// by name. Every parameter set runs in its own fork, so the interface call
+// stays monomorphic and the JIT inlines straight through it.
+public interface Workload {
+
+    // Builds fresh seeded state; param is the benchmark's parameter, or "" if it has none
+    void setUp(String param);
+
+    // One operation; the result goes to the blackhole
+    double run();
+
+    default void tearDown() {
+    }
+
+    static Workload load(String name, String param) {
+        try {
+            Workload workload = (Workload) Class.forName("Workloads$" + name).getDeclaredConstructor().newInstance();
+            workload.setUp(param);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown workload: " + name, e);
+        }
+    }
+}
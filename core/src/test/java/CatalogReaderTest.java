@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void headerAfterCommentsAndBlankLinesIsSkipped() throws IOException {
+        SatelliteStore store = read("# comment\n\nid,x,y,z,vx,vy,vz,radius\nA,1,2,3,0,0,0,1\r\nB,4,5,6,0,0,0,1\n");
+        assertEquals(2, store.size());
+        assertEquals("B", store.getId(1));
+        assertEquals(6, store.getZ(1));
+    }
+
+    @Test
+    void headerlessCatalogKeepsFirstRow() throws IOException {
+        assertEquals(2, read("A,1,2,3,0,0,0,1\nB,4,5,6,0,0,0,1\n").size());
+    }
+
+    @Test
+    void malformedFirstRowIsReported() {
+        IOException e = assertThrows(IOException.class, () -> read("A,1,2,x,0,0,0,1\nB,4,5,6,0,0,0,1\n"));
+        assertTrue(e.getMessage().startsWith("Line 1: bad number in field 4"), e.getMessage());
+    }
+
+    @Test
+    void shortFirstRowIsReported() {
+        IOException e = assertThrows(IOException.class, () -> read("# comment\nA,1,2\n"));
+        assertTrue(e.getMessage().startsWith("Line 2: expected 8"), e.getMessage());
+    }
+
+    @Test
+    void headerOnlyCountsOnce() {
+        IOException e = assertThrows(IOException.class,
+                () -> read("id,x,y,z,vx,vy,vz,radius\nA,1,2,3,0,0,0,1\nid,x,y,z,vx,vy,vz,radius\n"));
+        assertTrue(e.getMessage().startsWith("Line 3: bad number in field 2"), e.getMessage());
+    }
+
+    @Test
+    void duplicateIdIsReportedWithLine() {
+        IOException e = assertThrows(IOException.class,
+                () -> read("# comment\nA,1,2,3,0,0,0,1\nB,4,5,6,0,0,0,1\nA,7,8,9,0,0,0,1\n"));
+        assertEquals("Line 4: Duplicate satellite id: A", e.getMessage());
+    }
+
+    @Test
+    void flatCatalogDropsZ() throws IOException {
+        File file = dir.resolve("flat.csv").toFile();
+        Files.write(file.toPath(), "A,1,2,3,4,5,6,1\n".getBytes(StandardCharsets.UTF_8));
+        SatelliteStore store = CatalogReader.read(file, false);
+        assertEquals(0, store.getZ(0));
+        assertEquals(0, store.getVz(0));
+    }
+
+    private SatelliteStore read(String text) throws IOException {
+        File file = dir.resolve("catalog.csv").toFile();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return CatalogReader.read(file, true);
+    }
+}
@@ -0,0 +1,41 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CollisionLogTest {
+
+    @Test
+    void contactIsLoggedOncePerRun() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CollisionLog log = new CollisionLog(10, out, "");
+        log.collision(0, 1, "A", "B");
+        log.endTick();
+        log.collision(2, 3, "C", "D");
+        log.collision(0, 1, "A", "B");
+        log.endTick();
+        log.endTick();
+        log.collision(0, 1, "A", "B");
+        log.endTick();
+        log.close();
+        assertEquals("Collision detected between A and B\n"
+                        + "Collision detected between C and D\n"
+                        + "Collision detected between A and B\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void resetContactsLogsOngoingPairsAgain() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CollisionLog log = new CollisionLog(10, out, "⚠ ");
+        log.collision(0, 1, "A", "B");
+        log.endTick();
+        log.resetContacts();
+        log.collision(0, 1, "E", "F");
+        log.endTick();
+        log.close();
+        assertEquals("⚠ Collision detected between A and B\n⚠ Collision detected between E and F\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
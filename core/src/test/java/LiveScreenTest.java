@@ -0,0 +1,115 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LiveScreenTest {
+
+    @Test
+    void neighbourIsMovedToTheUpdateEpoch() {
+        SatelliteStore store = new SatelliteStore();
+        store.add("A", 0, 0, 0, 1, 0, 0, 1);
+        List<String> alerts = new ArrayList<>();
+        LiveScreen screen = new LiveScreen(store, 10, 100, (a, b, epoch, approach) ->
+                alerts.add(a + "-" + b + "@" + Math.round(epoch + approach.time)));
+        // A was last seen at x = 0 but is at x = 50 by epoch 50, five units short of B
+        screen.apply("B,55,0,0,0,0,0,1,50");
+        assertEquals(List.of("A-B@55"), alerts);
+    }
+
+    @Test
+    void stateTooFarBehindTheFeedIsRejected() {
+        LiveScreen screen = new LiveScreen(new SatelliteStore(), 10, 10, (a, b, epoch, approach) -> { });
+        screen.apply("A,0,0,0,0,0,0,1,50");
+        assertThrows(IllegalArgumentException.class, () -> screen.apply("B,0,0,0,0,0,0,1,39"));
+        screen.apply("B,100,0,0,0,0,0,1,40");
+        // Without an epoch a row is taken to be at the newest one
+        screen.apply("C,200,0,0,0,0,0,1");
+        assertEquals(50, screen.epoch());
+    }
+
+    @Test
+    void alertsMatchBruteForceOnARandomFeed() {
+        Random random = new Random(3);
+        double horizon = 5, maxAge = 8;
+        SatelliteStore store = new SatelliteStore();
+        Reference reference = new Reference(horizon);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double[] s = randomState(random);
+            store.add("S" + i, s[0], s[1], s[2], s[3], s[4], s[5], s[6]);
+            expected.addAll(reference.upsert("S" + i, 0, s));
+        }
+        List<String> alerts = new ArrayList<>();
+        LiveScreen screen = new LiveScreen(store, horizon, maxAge, (a, b, epoch, approach) -> alerts.add(pair(a, b)));
+
+        double clock = 0;
+        for (int u = 0; u < 3000; u++) {
+            clock += random.nextDouble() * 0.1;
+            double epoch = Math.max(0, clock - random.nextDouble() * maxAge);
+            String id = "S" + random.nextInt(250);
+            double[] s = randomState(random);
+            screen.upsert(id, epoch, s[0], s[1], s[2], s[3], s[4], s[5], s[6]);
+            expected.addAll(reference.upsert(id, epoch, s));
+        }
+        expected.sort(null);
+        alerts.sort(null);
+        assertEquals(expected, alerts);
+    }
+
+    private static double[] randomState(Random random) {
+        return new double[]{random.nextDouble() * 200, random.nextDouble() * 200, random.nextDouble() * 200,
+                random.nextGaussian(), random.nextGaussian(), random.nextGaussian(), 0.5 + random.nextDouble() * 2};
+    }
+
+    private static String pair(String a, String b) {
+        return a.compareTo(b) < 0 ? a + "-" + b : b + "-" + a;
+    }
+
+    // Checks an update against every other satellite, with the same
+    // alert-once rule; states are never moved, only extrapolated
+    private static final class Reference {
+        final double horizon;
+        final Map<String, double[]> states = new HashMap<>();
+        final Map<String, Set<String>> partners = new HashMap<>();
+
+        Reference(double horizon) {
+            this.horizon = horizon;
+        }
+
+        List<String> upsert(String id, double epoch, double[] s) {
+            states.put(id, new double[]{s[0], s[1], s[2], s[3], s[4], s[5], s[6], epoch});
+            Set<String> previous = partners.getOrDefault(id, new HashSet<>());
+            Set<String> current = new HashSet<>();
+            List<String> alerts = new ArrayList<>();
+            for (String other : states.keySet()) {
+                if (other.equals(id) || !touches(id, other, epoch)) continue;
+                current.add(other);
+                partners.computeIfAbsent(other, k -> new HashSet<>()).add(id);
+                if (!previous.contains(other)) alerts.add(pair(id, other));
+            }
+            for (String other : previous) {
+                if (!current.contains(other)) partners.get(other).remove(id);
+            }
+            partners.put(id, current);
+            return alerts;
+        }
+
+        private boolean touches(String a, String b, double epoch) {
+            double[] p = states.get(a), q = states.get(b);
+            double dp = epoch - p[7], dq = epoch - q[7];
+            double contact = p[6] + q[6];
+            return ClosestApproach.missDistanceSquared(
+                    p[0] + p[3] * dp - q[0] - q[3] * dq, p[1] + p[4] * dp - q[1] - q[4] * dq,
+                    p[2] + p[5] * dp - q[2] - q[5] * dq, p[3] - q[3], p[4] - q[4], p[5] - q[5],
+                    horizon) <= contact * contact;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Every propagator against closed-form two-body results on a seeded set of
+// elliptical, inclined orbits, and the J2 modes against the secular nodal
+// regression rate.
+class PropagatorAccuracyTest {
+
+    private static final double MU = Propagator.EARTH_MU;
+    private static final double DAY = 86_400;
+    private static final double[][] ELEMENTS = OrbitCatalog.randomElements(50, 42);
+
+    // Propagates one day in 60 s steps and compares with Kepler's equation solved from the elements
+    @ParameterizedTest
+    @CsvSource({"kepler, 1e-3", "rk4, 0.01", "dp, 0.05"})
+    void twoBodyPositionAfterOneDay(String mode, double toleranceKm) {
+        SatelliteStore store = OrbitCatalog.catalog(ELEMENTS, 0.01);
+        Propagator propagator = Propagator.forName(mode, MU);
+        double step = 60;
+        int steps = (int) (DAY / step);
+        for (int s = 0; s < steps; s++) store.propagate(propagator, step);
+
+        double worst = 0;
+        double[] expected = new double[6];
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            double[] el = ELEMENTS[i];
+            double meanMotion = Math.sqrt(MU / (el[0] * el[0] * el[0]));
+            OrbitCatalog.stateFromElements(el[0], el[1], el[2], el[3], el[4], el[5] + meanMotion * steps * step, expected);
+            double dx = store.getX(i) - expected[0], dy = store.getY(i) - expected[1], dz = store.getZ(i) - expected[2];
+            worst = Math.max(worst, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        assertTrue(worst <= toleranceKm, mode + " position error " + worst + " km");
+    }
+
+    // Over five days the osculating node should drift at the secular J2
+    // rate -1.5 n J2 (R/p)^2 cos i, to within the short-period terms
+    @ParameterizedTest
+    @ValueSource(strings = {"rk4-j2", "dp-j2"})
+    void nodalRegressionFollowsJ2Rate(String mode) {
+        SatelliteStore store = OrbitCatalog.catalog(ELEMENTS, 0.01);
+        Propagator propagator = Propagator.forName(mode, MU);
+        double step = 600, duration = 5 * DAY;
+        for (double t = 0; t < duration; t += step) store.propagate(propagator, step);
+
+        double worst = 0;
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            double[] el = ELEMENTS[i];
+            double p = el[0] * (1 - el[1] * el[1]);
+            double meanMotion = Math.sqrt(MU / (el[0] * el[0] * el[0]));
+            double rate = -1.5 * meanMotion * Propagator.EARTH_J2
+                    * Math.pow(Propagator.EARTH_RADIUS / p, 2) * Math.cos(el[2]);
+            double drift = angleDifference(node(store, i), el[3]);
+            // Relative to the total drift, with a floor for near-polar orbits that barely move
+            worst = Math.max(worst, Math.abs(drift - rate * duration) / Math.max(Math.abs(rate * duration), 0.01));
+        }
+        assertTrue(worst <= 0.05, mode + " node drift error " + worst * 100 + "%");
+    }
+
+    // A state at the centre of attraction gives a NaN error estimate; it must not hang
+    @Test
+    void dormandPrinceFailsOnSingularState() {
+        double[] x = {0}, y = {0}, z = {0}, vx = {0}, vy = {0}, vz = {0};
+        Propagator propagator = Propagator.forName("dp", MU);
+        assertThrows(ArithmeticException.class, () -> propagator.propagate(x, y, z, vx, vy, vz, 0, 1, 60));
+    }
+
+    @Test
+    void dormandPrinceFailsOnUnreachableTolerance() {
+        double[] x = {7000}, y = {0}, z = {0}, vx = {0}, vy = {7.5}, vz = {0};
+        NumericalPropagator propagator = new NumericalPropagator(MU, false, NumericalPropagator.Integrator.DORMAND_PRINCE)
+                .setTolerance(1e-30, 1e-30);
+        assertThrows(ArithmeticException.class, () -> propagator.propagate(x, y, z, vx, vy, vz, 0, 1, 60));
+    }
+
+    // Interpolates Kepler ephemeris tables at random times over one day and
+    // compares with Kepler's equation; every lookup after the prefetch is a hit
+    @Test
+    void ephemerisInterpolationMatchesKepler() {
+        SatelliteStore store = OrbitCatalog.catalog(ELEMENTS, 0.01);
+        EphemerisCache cache = new EphemerisCache(Propagator.forName("kepler", MU), 60, DAY, Long.MAX_VALUE);
+        cache.prefetch(store);
+
+        Random random = new Random(7);
+        double worst = 0;
+        double[] position = new double[3], expected = new double[6];
+        int lookups = 0;
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            double[] el = ELEMENTS[i];
+            double meanMotion = Math.sqrt(MU / (el[0] * el[0] * el[0]));
+            for (int k = 0; k < 1000; k++, lookups++) {
+                double t = random.nextDouble() * DAY;
+                cache.position(store, i, t, position);
+                OrbitCatalog.stateFromElements(el[0], el[1], el[2], el[3], el[4], el[5] + meanMotion * t, expected);
+                double dx = position[0] - expected[0], dy = position[1] - expected[1], dz = position[2] - expected[2];
+                worst = Math.max(worst, Math.sqrt(dx * dx + dy * dy + dz * dz));
+            }
+        }
+        assertTrue(worst <= 0.01, "interpolation error " + worst + " km");
+        assertEquals(ELEMENTS.length, cache.misses());
+        assertEquals(lookups, cache.hits());
+    }
+
+    // Right ascension of the ascending node from the angular momentum vector
+    private static double node(SatelliteStore store, int i) {
+        double hx = store.getY(i) * store.getVz(i) - store.getZ(i) * store.getVy(i);
+        double hy = store.getZ(i) * store.getVx(i) - store.getX(i) * store.getVz(i);
+        return Math.atan2(hx, -hy);
+    }
+
+    private static double angleDifference(double a, double b) {
+        double d = a - b;
+        return Math.atan2(Math.sin(d), Math.cos(d));
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// The spatial-hash sweep against brute force, step by step, on seeded
+// catalogs: sparse and dense, flat and 3D, and Kepler orbits whose cells are
+// resized every step. Both paths must report identical pairs at every step.
+class SweepTest {
+
+    private static final int N = 1_000;
+    private static final int STEPS = 30;
+
+    @Test
+    void sparseCatalogMatchesBruteForce() {
+        assertSameAsBruteForce(ScalingBenchmark.catalog(N, 42), "linear");
+    }
+
+    @Test
+    void denseCatalogMatchesBruteForce() {
+        assertTrue(assertSameAsBruteForce(dense(N, 7, true), "linear") > 0, "dense catalog should collide");
+    }
+
+    @Test
+    void flatCatalogMatchesBruteForce() {
+        assertTrue(assertSameAsBruteForce(dense(N, 11, false), "linear") > 0, "flat catalog should collide");
+    }
+
+    @Test
+    void keplerCatalogMatchesBruteForce() {
+        SatelliteStore orbits = OrbitCatalog.catalog(OrbitCatalog.randomElements(N, 42), 300);
+        assertTrue(assertSameAsBruteForce(orbits, "kepler") > 0, "orbits should conjunct");
+    }
+
+    // Returns the pairs found over all steps
+    private static long assertSameAsBruteForce(SatelliteStore store, String mode) {
+        Propagator propagator = Propagator.forName(mode, Propagator.EARTH_MU);
+        boolean linear = propagator instanceof LinearPropagator;
+        SpatialHash grid = SpatialHash.forStore(store, 1);
+        PairList pairs = new PairList(), expected = new PairList();
+        long found = 0;
+        for (int t = 1; t <= STEPS; t++) {
+            if (!linear) grid.resize(store, 1);
+            grid.findCollisionsWithin(store, 1, pairs);
+            store.bruteForceCollisions(1, expected);
+            assertEquals(expected.size(), pairs.size(), "pair count at step " + t);
+            assertTrue(pairs.sameAs(expected), "pairs at step " + t);
+            found += pairs.size();
+            store.propagate(propagator, 1);
+        }
+        return found;
+    }
+
+    // Packed tightly enough that many pairs touch every step
+    private static SatelliteStore dense(int n, long seed, boolean is3D) {
+        Random random = new Random(seed);
+        double side = is3D ? 10 * Math.cbrt(n) : 10 * Math.sqrt(n);
+        SatelliteStore store = new SatelliteStore(n);
+        for (int i = 0; i < n; i++) {
+            store.add("SAT-" + i,
+                    (random.nextDouble() - 0.5) * side,
+                    (random.nextDouble() - 0.5) * side,
+                    is3D ? (random.nextDouble() - 0.5) * side : 0,
+                    random.nextGaussian(), random.nextGaussian(), is3D ? random.nextGaussian() : 0,
+                    1 + random.nextDouble() * 4);
+        }
+        return store;
+    }
+}